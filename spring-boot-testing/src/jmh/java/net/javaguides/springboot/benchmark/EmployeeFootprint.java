@@ -0,0 +1,49 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeStore;
+import net.javaguides.springboot.support.EmployeeDataGenerator;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retained bytes per employee of {@link EmployeeStore} against a {@code HashMap<Long, Employee>} of entities,
+ * measured by walking the object graphs with JOL.
+ * <p>
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main="net.javaguides.springboot.benchmark.EmployeeFootprint 1000000"
+ */
+public class EmployeeFootprint {
+
+    public static void main(String[] args) {
+
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        EmployeeDataGenerator generator = new EmployeeDataGenerator(42L);
+
+        Map<Long, Employee> entities = new HashMap<>();
+        EmployeeStore store = new EmployeeStore();
+        for (int i = 0; i < count; i++) {
+            Employee generated = generator.employee(i);
+            // entities read from JDBC get their own String instances, the generator shares its name constants
+            Employee entity = Employee.builder()
+                    .id(i + 1L)
+                    .firstName(new String(generated.getFirstName()))
+                    .lastName(new String(generated.getLastName()))
+                    .email(generated.getEmail())
+                    .build();
+            entities.put(entity.getId(), entity);
+            store.put(entity);
+        }
+
+        System.out.println(VM.current().details());
+        print("HashMap<Long, Employee>", GraphLayout.parseInstance(entities).totalSize(), count);
+        print("EmployeeStore", GraphLayout.parseInstance(store).totalSize(), count);
+        System.out.printf("%d distinct names in the string table%n", store.distinctNames());
+    }
+
+    private static void print(String name, long bytes, int count) {
+        System.out.printf("%-24s %,14d bytes %8.1f bytes/employee%n", name, bytes, (double) bytes / count);
+    }
+}
@@ -0,0 +1,88 @@
+package net.javaguides.springboot.benchmark;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.support.EmployeeBulkLoader;
+import net.javaguides.springboot.support.EmployeeDataGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The four first/last name lookups of EmployeeRepository against the same H2 data set.
+ * The looked up employees have unique names, since the lookups return a single employee, and sit among
+ * generated employees with skewed names that share the index with them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryQueryBenchmark {
+
+    private static final int LOOKUP_EMPLOYEES = 10_000;
+
+    @Param({"10000", "1000000"})
+    public int employees;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+
+        Stream<Employee> lookups = IntStream.range(0, LOOKUP_EMPLOYEES).mapToObj(i -> Employee.builder()
+                .firstName(firstName(i))
+                .lastName(lastName(i))
+                .email("employee" + i + "@benchmark.example.com")
+                .build());
+        new EmployeeBulkLoader(context.getBean(DataSource.class))
+                .load(Stream.concat(lookups, new EmployeeDataGenerator(11).employees(employees)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee findByJPQL() {
+        int i = ThreadLocalRandom.current().nextInt(LOOKUP_EMPLOYEES);
+        return employeeRepository.findByJPQL(firstName(i), lastName(i));
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams() {
+        int i = ThreadLocalRandom.current().nextInt(LOOKUP_EMPLOYEES);
+        return employeeRepository.findByJPQLNamedParams(firstName(i), lastName(i));
+    }
+
+    @Benchmark
+    public Employee findByNativeSQL() {
+        int i = ThreadLocalRandom.current().nextInt(LOOKUP_EMPLOYEES);
+        return employeeRepository.findByNativeSQL(firstName(i), lastName(i));
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLNamedParams() {
+        int i = ThreadLocalRandom.current().nextInt(LOOKUP_EMPLOYEES);
+        return employeeRepository.findByNativeSQLNamedParams(firstName(i), lastName(i));
+    }
+
+    private static String firstName(int i) {
+        return "First" + i;
+    }
+
+    private static String lastName(int i) {
+        return "Last" + i;
+    }
+}
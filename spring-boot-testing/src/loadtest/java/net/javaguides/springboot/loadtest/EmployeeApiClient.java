@@ -0,0 +1,127 @@
+package net.javaguides.springboot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sends one request per operation to /api/employees and keeps a pool of known ids for get, update and delete.
+ */
+final class EmployeeApiClient {
+
+    private static final int ID_POOL_SIZE = 1 << 16;
+
+    private final HttpClient httpClient;
+
+    private final URI employeesUrl;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // ring buffer of recently created ids, old ids are overwritten once it is full
+    private final AtomicLongArray ids = new AtomicLongArray(ID_POOL_SIZE);
+
+    private final AtomicLong idCount = new AtomicLong();
+
+    EmployeeApiClient(URI baseUrl) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.employeesUrl = baseUrl.resolve("/api/employees");
+    }
+
+    /**
+     * Create employees through the batch endpoint so get, update and delete have ids to work with.
+     */
+    void seed(int employees) throws IOException, InterruptedException {
+        for (int created = 0; created < employees; ) {
+            int batch = Math.min(1000, employees - created);
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < batch; i++) {
+                if (i > 0)
+                    body.append(',');
+                body.append(employeeJson(sequence.incrementAndGet()));
+            }
+            body.append(']');
+
+            HttpResponse<String> response = send(post(employeesUrl.resolve("/api/employees/batch"), body.toString()));
+            if (response.statusCode() != 201)
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+            for (JsonNode employee : objectMapper.readTree(response.body()))
+                addId(employee.get("id").asLong());
+            created += batch;
+        }
+    }
+
+    /**
+     * @return the HTTP status of the response
+     */
+    int execute(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case CREATE -> create();
+            case GET -> send(HttpRequest.newBuilder(employeeUrl(randomId())).GET().build()).statusCode();
+            case UPDATE -> update();
+            case DELETE -> send(HttpRequest.newBuilder(employeeUrl(randomId())).DELETE().build()).statusCode();
+            case LIST -> send(HttpRequest.newBuilder(URI.create(employeesUrl + "?limit=50")).GET().build()).statusCode();
+        };
+    }
+
+    private int create() throws IOException, InterruptedException {
+        HttpResponse<String> response = send(post(employeesUrl, employeeJson(sequence.incrementAndGet())));
+        if (response.statusCode() == 201)
+            addId(objectMapper.readTree(response.body()).get("id").asLong());
+        return response.statusCode();
+    }
+
+    private int update() throws IOException, InterruptedException {
+        long n = sequence.incrementAndGet();
+        HttpRequest request = HttpRequest.newBuilder(employeeUrl(randomId()))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(employeeJson(n)))
+                .build();
+        return send(request).statusCode();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest post(URI uri, String json) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private String employeeJson(long n) {
+        return "{\"firstName\":\"Load" + n + "\",\"lastName\":\"Test\",\"email\":\"load-" + runId + "-" + n + "@example.com\"}";
+    }
+
+    private URI employeeUrl(long id) {
+        return URI.create(employeesUrl + "/" + id);
+    }
+
+    private void addId(long id) {
+        ids.set((int) (idCount.getAndIncrement() & (ID_POOL_SIZE - 1)), id);
+    }
+
+    private long randomId() {
+        long known = Math.min(idCount.get(), ID_POOL_SIZE);
+        if (known == 0)
+            return 1L;
+        return ids.get(ThreadLocalRandom.current().nextInt((int) known));
+    }
+}
@@ -0,0 +1,178 @@
+package net.javaguides.springboot.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a running application with a weighted mix of employee requests and reports latency percentiles.
+ * <p>
+ * In open mode requests are scheduled at a fixed rate regardless of how fast the server answers, and latency is
+ * measured from the time a request was due rather than when it was actually sent, so a stalled server shows up in the
+ * percentiles instead of silently lowering the request rate (coordinated omission). Closed mode runs a fixed number of
+ * clients that send their next request as soon as the previous one returns.
+ */
+public final class LoadGenerator {
+
+    private final LoadOptions options;
+
+    private final EmployeeApiClient client;
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    private LoadGenerator(LoadOptions options) {
+        this.options = options;
+        this.client = new EmployeeApiClient(options.baseUrl);
+
+        List<Operation> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Operation, Integer> entry : options.mix.entrySet()) {
+            if (entry.getValue() <= 0)
+                continue;
+            total += entry.getValue();
+            weighted.add(entry.getKey());
+            cumulative.add(total);
+            stats.put(entry.getKey(), new OperationStats());
+        }
+        if (weighted.isEmpty())
+            throw new IllegalArgumentException("The operation mix must contain at least one positive weight");
+        this.operations = weighted.toArray(new Operation[0]);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        LoadGenerator generator = new LoadGenerator(options);
+
+        System.out.printf("Seeding %d employees at %s%n", options.seedEmployees, options.baseUrl);
+        generator.client.seed(options.seedEmployees);
+
+        System.out.printf("Running %s mode for %s after %s warmup%n", options.mode, options.duration, options.warmup);
+        long measureFrom = System.nanoTime() + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        if (options.mode == LoadOptions.Mode.OPEN)
+            generator.runOpen(measureFrom, end);
+        else
+            generator.runClosed(measureFrom, end);
+
+        generator.report(System.out);
+    }
+
+    private void runOpen(long measureFrom, long end) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate);
+        ExecutorService senders = Executors.newFixedThreadPool(options.concurrency);
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end)
+                break;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            Operation operation = nextOperation();
+            // requests queue in the executor when all senders are busy, the wait is part of the measured latency
+            senders.execute(() -> send(operation, intendedStart, intendedStart >= measureFrom));
+        }
+        senders.shutdown();
+        senders.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void runClosed(long measureFrom, long end) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(options.concurrency);
+        for (int i = 0; i < options.concurrency; i++) {
+            clients.execute(() -> {
+                long start;
+                while ((start = System.nanoTime()) < end)
+                    send(nextOperation(), start, start >= measureFrom);
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(options.duration.toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    private void send(Operation operation, long startNanos, boolean measured) {
+        int status;
+        try {
+            status = client.execute(operation);
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (measured)
+            stats.get(operation).record(System.nanoTime() - startNanos, status);
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i])
+                return operations[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    private void report(PrintStream out) throws IOException {
+        Files.createDirectories(options.reportDirectory);
+        double seconds = options.duration.toNanos() / (double) Duration.ofSeconds(1).toNanos();
+
+        out.printf("%n%-8s %10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "op", "count", "404", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        Histogram all = new Histogram(3);
+        long notFound = 0;
+        long errors = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram latency = operationStats.getLatency().copy();
+            all.add(latency);
+            notFound += operationStats.getNotFound();
+            errors += operationStats.getErrors();
+            printRow(out, entry.getKey().name().toLowerCase(), latency, operationStats.getNotFound(), operationStats.getErrors(), seconds);
+            writeDistribution(entry.getKey().name().toLowerCase(), latency);
+        }
+        printRow(out, "all", all, notFound, errors, seconds);
+        writeDistribution("all", all);
+
+        out.printf("%nPercentile distributions written to %s%n", options.reportDirectory.toAbsolutePath());
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram latency, long notFound, long errors, double seconds) {
+        out.printf("%-8s %10d %8d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                name,
+                latency.getTotalCount(),
+                notFound,
+                errors,
+                latency.getTotalCount() / seconds,
+                latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0,
+                latency.getMaxValue() / 1000.0);
+    }
+
+    private void writeDistribution(String name, Histogram latency) throws IOException {
+        String file = options.mode.name().toLowerCase() + "-" + name + ".hgrm";
+        try (PrintStream out = new PrintStream(Files.newOutputStream(options.reportDirectory.resolve(file)))) {
+            // values are recorded in microseconds, the scaling ratio makes the file read in milliseconds
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.javaguides.springboot.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code -name value} pairs:
+ * <pre>
+ * -url          http://localhost:8080   base URL of the running application
+ * -mode         open | closed           open: constant arrival rate, closed: fixed number of looping clients
+ * -rate         200                     requests per second, open mode only
+ * -concurrency  32                      clients in closed mode, maximum requests in flight in open mode
+ * -duration     60s                     measured run time
+ * -warmup       10s                     run time before measuring, samples are discarded
+ * -mix          create=10,get=60,update=10,delete=5,list=15
+ * -seed         1000                    employees created through the batch endpoint before starting
+ * -report       target/loadtest         directory for the .hgrm percentile distributions
+ * </pre>
+ */
+final class LoadOptions {
+
+    enum Mode {OPEN, CLOSED}
+
+    URI baseUrl = URI.create("http://localhost:8080");
+
+    Mode mode = Mode.OPEN;
+
+    double rate = 200;
+
+    int concurrency = 32;
+
+    Duration duration = Duration.ofSeconds(60);
+
+    Duration warmup = Duration.ofSeconds(10);
+
+    Map<Operation, Integer> mix = defaultMix();
+
+    int seedEmployees = 1000;
+
+    Path reportDirectory = Path.of("target", "loadtest");
+
+    static LoadOptions parse(String[] args) {
+
+        if (args.length % 2 != 0)
+            throw new IllegalArgumentException("Options must be given as -name value pairs");
+
+        LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-url" -> options.baseUrl = URI.create(value);
+                case "-mode" -> options.mode = Mode.valueOf(value.toUpperCase(Locale.ROOT));
+                case "-rate" -> options.rate = Double.parseDouble(value);
+                case "-concurrency" -> options.concurrency = Integer.parseInt(value);
+                case "-duration" -> options.duration = parseDuration(value);
+                case "-warmup" -> options.warmup = parseDuration(value);
+                case "-mix" -> options.mix = parseMix(value);
+                case "-seed" -> options.seedEmployees = Integer.parseInt(value);
+                case "-report" -> options.reportDirectory = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (options.rate <= 0 || options.concurrency <= 0)
+            throw new IllegalArgumentException("rate and concurrency must be positive");
+        return options;
+    }
+
+    /**
+     * Accepts 500ms, 30s, 2m or an ISO-8601 duration.
+     */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms"))
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        if (value.endsWith("s"))
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        if (value.endsWith("m"))
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        return Duration.parse(value);
+    }
+
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] weight = entry.split("=");
+            if (weight.length != 2)
+                throw new IllegalArgumentException("Invalid mix entry " + entry);
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    private static Map<Operation, Integer> defaultMix() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values())
+            mix.put(operation, operation.getDefaultWeight());
+        return mix;
+    }
+}
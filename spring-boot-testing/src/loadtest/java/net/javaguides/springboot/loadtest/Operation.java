@@ -0,0 +1,23 @@
+package net.javaguides.springboot.loadtest;
+
+/**
+ * Requests the load generator can send, with their default share of the mix.
+ */
+enum Operation {
+
+    CREATE(10),
+    GET(60),
+    UPDATE(10),
+    DELETE(5),
+    LIST(15);
+
+    private final int defaultWeight;
+
+    Operation(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
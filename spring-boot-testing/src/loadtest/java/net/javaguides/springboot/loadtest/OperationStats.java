@@ -0,0 +1,38 @@
+package net.javaguides.springboot.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution in microseconds and outcome counters of one operation.
+ */
+final class OperationStats {
+
+    private final Histogram latency = new ConcurrentHistogram(3);
+
+    private final LongAdder notFound = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, int status) {
+        latency.recordValue(Math.max(1, latencyNanos / 1000));
+        if (status == 404)
+            notFound.increment();
+        else if (status < 200 || status >= 300)
+            errors.increment();
+    }
+
+    Histogram getLatency() {
+        return latency;
+    }
+
+    long getNotFound() {
+        return notFound.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,58 @@
+package net.javaguides.springboot.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+
+    /**
+     * Caffeine backed cache manager. Caffeine evicts with W-TinyLFU once the size bound is reached
+     * and records statistics, which actuator publishes as cache.gets, cache.puts and cache.evictions.
+     * Empty lookups are stored as {@link NullValue} so 404s are cached too, but only for a short time.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${employees.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${employees.cache.ttl:10m}") Duration ttl,
+                                     @Value("${employees.cache.not-found-ttl:30s}") Duration notFoundTtl) {
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new NotFoundAwareExpiry(ttl.toNanos(), notFoundTtl.toNanos()))
+                .recordStats());
+        cacheManager.setCacheNames(List.of(EMPLOYEES_CACHE));
+        return cacheManager;
+    }
+
+    private record NotFoundAwareExpiry(long ttlNanos, long notFoundTtlNanos) implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return value instanceof NullValue ? notFoundTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.javaguides.springboot.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one {@link net.javaguides.springboot.service.EmployeeService} call. The duration is the
+ * event duration. Emails are recorded as a keyed hash only, and suggest queries, which may hold names, not at all.
+ */
+@Name("net.javaguides.springboot.EmployeeOperation")
+@Label("Employee Operation")
+@Category({"Employees", "Service"})
+@Description("EmployeeService method invocation")
+@StackTrace(false)
+public class EmployeeOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Employee Id")
+    @Description("Id argument or id of the saved employee, 0 when the operation has none")
+    public long employeeId;
+
+    @Label("Email Hash")
+    @Description("HMAC-SHA256 of the email, truncated to 64 bits, 0 when the operation has none")
+    public long emailHash;
+
+    @Label("Email Domain")
+    @Description("Email domain argument, null when the operation has none")
+    public String emailDomain;
+
+    @Label("Rows")
+    @Description("Employees returned, saved or deleted")
+    public int rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
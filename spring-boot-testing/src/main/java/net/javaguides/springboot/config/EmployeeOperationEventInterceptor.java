@@ -0,0 +1,124 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.dto.CursorPage;
+import net.javaguides.springboot.dto.MultiGetResult;
+import net.javaguides.springboot.model.Employee;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Emits an {@link EmployeeOperationEvent} around each service call. When no recording has the event enabled the
+ * event is never committed and the JIT removes the allocation, so the cost outside a recording is an enabled check.
+ * <p>
+ * Emails are hashed with HMAC-SHA256 under a secret key, so a recording does not reveal them: a plain hash of an
+ * email can be reversed by hashing candidate addresses. Without a configured key every process draws a random one,
+ * and hashes only correlate calls within that process.
+ */
+public class EmployeeOperationEventInterceptor implements MethodInterceptor {
+
+    private static final String HASH_ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> emailMac;
+
+    public EmployeeOperationEventInterceptor() {
+        this(randomKey());
+    }
+
+    /**
+     * @param emailHashKey secret key of the email hashes, the same on every instance to correlate their recordings
+     */
+    public EmployeeOperationEventInterceptor(byte[] emailHashKey) {
+        SecretKeySpec key = new SecretKeySpec(emailHashKey, HASH_ALGORITHM);
+        this.emailMac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HASH_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+            }
+        });
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        EmployeeOperationEvent event = new EmployeeOperationEvent();
+        if (!event.isEnabled())
+            return invocation.proceed();
+
+        event.begin();
+        try {
+            Object result = invocation.proceed();
+            event.rows = rows(result);
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = invocation.getMethod().getName();
+                setKey(event, invocation.getArguments());
+                event.commit();
+            }
+        }
+    }
+
+    long emailHash(String email) {
+        byte[] digest = emailMac.get().doFinal(email.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(digest).getLong();
+    }
+
+    private void setKey(EmployeeOperationEvent event, Object[] arguments) {
+        if (arguments.length == 0)
+            return;
+        Object key = arguments[0];
+        // cursors and suggest queries are strings too, only the arguments known to be emails or domains are recorded
+        switch (event.operation) {
+            case "getEmployeeByEmail" -> event.emailHash = key instanceof String email ? emailHash(email) : 0L;
+            case "deleteEmployeesByEmailDomain" -> event.emailDomain = key instanceof String domain ? domain : null;
+            default -> {
+                if (key instanceof Long id) {
+                    event.employeeId = id;
+                } else if (key instanceof Employee employee) {
+                    event.employeeId = employee.getId();
+                    event.emailHash = employee.getEmail() != null ? emailHash(employee.getEmail()) : 0L;
+                }
+            }
+        }
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Integer count)
+            return count;
+        if (result instanceof Boolean found)
+            return found ? 1 : 0;
+        if (result instanceof Optional<?> employee)
+            return employee.isPresent() ? 1 : 0;
+        if (result instanceof Collection<?> employees)
+            return employees.size();
+        if (result instanceof CursorPage<?> page)
+            return page.getItems().size();
+        if (result instanceof MultiGetResult multiGet)
+            return multiGet.getEmployees().size();
+        if (result instanceof Employee)
+            return 1;
+        return 0;
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
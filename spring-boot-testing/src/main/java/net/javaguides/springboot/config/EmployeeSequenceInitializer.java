@@ -0,0 +1,54 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.model.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the employee id sequence past the ids already in the employees table, before anything is inserted.
+ * <p>
+ * MySQL has no sequences, Hibernate backs {@code employees_seq} with a one row table that {@code ddl-auto=update}
+ * creates at 1, so on a database whose rows got their ids from the former AUTO_INCREMENT column the new ids would
+ * collide with existing ones. The pooled optimizer hands out the {@link Employee#ID_ALLOCATION_SIZE} ids below the
+ * value it reads, so the table is set at least that far above the highest id. The update only ever raises the value,
+ * instances starting together or later do not move it back. Databases with real sequences, like the H2 profile with
+ * {@code create-drop}, are left alone.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class EmployeeSequenceInitializer implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSequenceInitializer.class);
+
+    static final String SELECT_MAX_ID = "select max(id) from employees";
+
+    static final String RAISE_NEXT_VALUE = "update " + Employee.ID_SEQUENCE + " set next_val = ? where next_val < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public EmployeeSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(database) && !"MariaDB".equalsIgnoreCase(database))
+            return;
+
+        Long maxId = jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class);
+        if (maxId == null)
+            return;
+        long nextValue = maxId + Employee.ID_ALLOCATION_SIZE + 1;
+        if (jdbcTemplate.update(RAISE_NEXT_VALUE, nextValue, nextValue) > 0)
+            log.info("Moved {} to {}, past the highest employee id {}", Employee.ID_SEQUENCE, nextValue, maxId);
+    }
+}
@@ -0,0 +1,30 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.service.EmployeeService;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.InMemoryEmployeeService;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Matches the {@link EmployeeService} methods of the bean callers are injected with. With the in memory store
+ * enabled that is {@link InMemoryEmployeeService}, and the {@link EmployeeServiceImpl} it delegates to is left out,
+ * so a call is timed, recorded and reported once.
+ */
+class EmployeeServicePointcut extends StaticMethodMatcherPointcut {
+
+    EmployeeServicePointcut(Environment environment) {
+        boolean inMemory = environment.getProperty(InMemoryEmployeeService.ENABLED_PROPERTY, Boolean.class, false);
+        setClassFilter(new RootClassFilter(inMemory ? InMemoryEmployeeService.class : EmployeeServiceImpl.class));
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        // the service operations only, not the methods the implementations expose to the rest of the application
+        return ReflectionUtils.findMethod(EmployeeService.class, method.getName(), method.getParameterTypes()) != null;
+    }
+}
@@ -0,0 +1,38 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class FlightRecorderConfig {
+
+    public static final String EMAIL_HASH_KEY_PROPERTY = "employees.flight-recorder.email-hash-key";
+
+    /**
+     * Emits an {@link EmployeeOperationEvent} per EmployeeService call, just inside the timing advisor.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor employeeOperationEventAdvisor(Environment environment) {
+        String emailHashKey = environment.getProperty(EMAIL_HASH_KEY_PROPERTY);
+        EmployeeOperationEventInterceptor interceptor = emailHashKey == null || emailHashKey.isEmpty()
+                ? new EmployeeOperationEventInterceptor()
+                : new EmployeeOperationEventInterceptor(emailHashKey.getBytes(StandardCharsets.UTF_8));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new EmployeeServicePointcut(environment), interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+
+    @Bean
+    public FlightRecorderEndpoint flightRecorderEndpoint() {
+        return new FlightRecorderEndpoint();
+    }
+}
@@ -0,0 +1,160 @@
+package net.javaguides.springboot.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts and stops a bounded flight recording of this JVM at /actuator/flightrecorder.
+ * <ul>
+ *     <li>POST starts a recording, optionally with {@code settings} (default or profile), {@code maxAge},
+ *     {@code maxSize} in bytes and {@code duration} after which it stops by itself</li>
+ *     <li>GET reports the state of the current recording</li>
+ *     <li>DELETE stops it and streams back the .jfr file</li>
+ * </ul>
+ * Only one recording is managed at a time. Recordings leave out the events carrying the environment variables,
+ * system properties and JVM arguments, which may hold credentials.
+ * <p>
+ * Disabled by default, enable it with {@code management.endpoint.flightrecorder.enabled=true} and expose it only on a
+ * separate {@code management.server.port} that is not reachable from outside.
+ */
+@Endpoint(id = "flightrecorder", enableByDefault = false)
+public class FlightRecorderEndpoint {
+
+    static final List<String> SENSITIVE_EVENTS =
+            List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty", "jdk.JVMInformation");
+
+    static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(5);
+
+    static final long DEFAULT_MAX_SIZE = 100 * 1024 * 1024;
+
+    static final Duration DEFAULT_DURATION = Duration.ofMinutes(15);
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState());
+        status.put("startTime", recording.getStartTime());
+        status.put("maxAge", recording.getMaxAge());
+        status.put("maxSize", recording.getMaxSize());
+        status.put("duration", recording.getDuration());
+        status.put("size", recording.getSize());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable String settings, @Nullable Duration maxAge,
+                                                                       @Nullable Long maxSize, @Nullable Duration duration) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING)
+            return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        closeRecording();
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown settings " + settings), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        recording = new Recording(configuration);
+        recording.setName("employees");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge != null ? maxAge : DEFAULT_MAX_AGE);
+        recording.setMaxSize(maxSize != null ? maxSize : DEFAULT_MAX_SIZE);
+        recording.setDuration(duration != null ? duration : DEFAULT_DURATION);
+        recording.enable(EmployeeOperationEvent.class);
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.start();
+        return new WebEndpointResponse<>(status());
+    }
+
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null)
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+
+        // a recording past its duration has already stopped by itself
+        if (recording.getState() == RecordingState.RUNNING)
+            recording.stop();
+        Path file = Files.createTempFile("employees-", ".jfr");
+        try {
+            recording.dump(file);
+        } finally {
+            closeRecording();
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file.toFile()));
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Dump file deleted once the response has been written.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(File file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            InputStream in = super.getInputStream();
+            return new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deleteFile();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // forces the response to be written through getInputStream
+            return false;
+        }
+
+        private void deleteFile() {
+            try {
+                Files.deleteIfExists(getFile().toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.bind.annotation.RestController;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Counts of lookups served by a load already running for the same key, see
+     * {@link net.javaguides.springboot.service.impl.SingleFlight}.
+     */
+    @Bean
+    public MeterBinder employeeCollapsedLookupsMetrics(EmployeeServiceImpl employeeService) {
+        return registry -> {
+            FunctionCounter.builder("employee.lookups.collapsed", employeeService, EmployeeServiceImpl::getCollapsedIdLookups)
+                    .description("Employee lookups that waited on a load started by another caller")
+                    .tag("key", "id")
+                    .register(registry);
+            FunctionCounter.builder("employee.lookups.collapsed", employeeService, EmployeeServiceImpl::getCollapsedEmailLookups)
+                    .description("Employee lookups that waited on a load started by another caller")
+                    .tag("key", "email")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Times every public method of the rest controllers. http.server.requests covers the whole request,
+     * this timer covers the handler method alone.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor controllerTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return timingAdvisor(new AnnotationMatchingPointcut(RestController.class, true),
+                new TimedInvocationInterceptor(meterRegistry::getObject, "controller", null));
+    }
+
+    /**
+     * Times the service methods as seen by callers, cache hits included, once per call with the in memory store
+     * enabled, see {@link EmployeeServicePointcut}.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serviceTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        return timingAdvisor(new EmployeeServicePointcut(environment),
+                new TimedInvocationInterceptor(meterRegistry::getObject, "service", "EmployeeService"));
+    }
+
+    /**
+     * Times every repository query, including the inherited JpaRepository methods.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor repositoryTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return timingAdvisor(new ComposablePointcut(new RootClassFilter(EmployeeRepository.class)),
+                new TimedInvocationInterceptor(meterRegistry::getObject, "repository", "EmployeeRepository"));
+    }
+
+    /**
+     * Timing runs outermost, so cache hits and transaction commit are part of the measured time.
+     */
+    private static Advisor timingAdvisor(Pointcut pointcut, TimedInvocationInterceptor interceptor) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
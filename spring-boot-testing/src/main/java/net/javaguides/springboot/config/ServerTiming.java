@@ -0,0 +1,93 @@
+package net.javaguides.springboot.config;
+
+import java.util.Locale;
+
+/**
+ * Time spent in each phase of the current request, reported in the Server-Timing response header.
+ * <p>
+ * Only sampled requests have a ServerTiming bound to their thread; everywhere else {@link #current()} returns
+ * {@code null} and callers skip measuring altogether.
+ */
+public final class ServerTiming {
+
+    public enum Phase {
+
+        DESERIALIZATION("deser", "JSON deserialization"),
+        SERVICE("service", "Service logic"),
+        CONNECTION("conn", "Connection acquisition"),
+        SQL("db", "SQL execution"),
+        SERIALIZATION("ser", "JSON serialization");
+
+        private final String metricName;
+
+        private final String description;
+
+        Phase(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+
+    private final long[] durations = new long[Phase.values().length];
+
+    private final long[] starts = new long[Phase.values().length];
+
+    private ServerTiming() {
+    }
+
+    static ServerTiming begin() {
+        ServerTiming timing = new ServerTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return timing of the request on this thread, or {@code null} when it is not sampled
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    public void add(Phase phase, long nanos) {
+        durations[phase.ordinal()] += nanos;
+    }
+
+    public void start(Phase phase) {
+        starts[phase.ordinal()] = System.nanoTime();
+    }
+
+    public void stop(Phase phase) {
+        long start = starts[phase.ordinal()];
+        if (start != 0) {
+            add(phase, System.nanoTime() - start);
+            starts[phase.ordinal()] = 0;
+        }
+    }
+
+    /**
+     * Header value with every phase that took time plus the total, durations in milliseconds.
+     */
+    String toHeaderValue() {
+        long total = System.nanoTime() - startNanos;
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (durations[phase.ordinal()] > 0)
+                append(header, phase.metricName, phase.description, durations[phase.ordinal()]).append(", ");
+        }
+        return append(header, "total", "Total", total).toString();
+    }
+
+    private static StringBuilder append(StringBuilder header, String name, String description, long nanos) {
+        return header.append(name)
+                .append(";desc=\"").append(description).append('"')
+                .append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+}
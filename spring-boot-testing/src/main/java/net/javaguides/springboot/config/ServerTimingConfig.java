@@ -0,0 +1,56 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Server-Timing header for /api/employees, see {@link ServerTimingFilter}. Requests are timed when they carry the
+ * employees.server-timing.request-header header, or at random with probability employees.server-timing.sample-rate.
+ */
+@Configuration
+public class ServerTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${employees.server-timing.request-header:X-Server-Timing}") String requestHeader,
+            @Value("${employees.server-timing.sample-rate:0}") double sampleRate) {
+
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(requestHeader, sampleRate));
+        registration.addUrlPatterns("/api/employees", "/api/employees/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor serverTimingAdvisor(Environment environment) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                new EmployeeServicePointcut(environment), new ServerTimingInterceptor());
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return advisor;
+    }
+
+    @Bean
+    public static BeanPostProcessor serverTimingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof ServerTimingDataSource)
+                        ? new ServerTimingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package net.javaguides.springboot.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Measures connection acquisition and statement execution for sampled requests.
+ * <p>
+ * Outside a sampled request the pooled connection is returned as is, so the only cost is a thread local read.
+ */
+public class ServerTimingDataSource extends DelegatingDataSource {
+
+    public ServerTimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null)
+            return super.getConnection();
+
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        timing.add(ServerTiming.Phase.CONNECTION, System.nanoTime() - start);
+        return timedConnection(connection, timing);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null)
+            return super.getConnection(username, password);
+
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        timing.add(ServerTiming.Phase.CONNECTION, System.nanoTime() - start);
+        return timedConnection(connection, timing);
+    }
+
+    private static Connection timedConnection(Connection connection, ServerTiming timing) {
+        return (Connection) Proxy.newProxyInstance(ServerTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("equals"))
+                        return proxy == args[0];
+                    if (method.getName().equals("hashCode"))
+                        return System.identityHashCode(proxy);
+                    Object result = invoke(connection, method, args);
+                    // Statement, PreparedStatement and CallableStatement are timed when executed
+                    if (result instanceof Statement statement && method.getReturnType().isInterface())
+                        return Proxy.newProxyInstance(ServerTimingDataSource.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()}, timedStatement(statement, timing));
+                    return result;
+                });
+    }
+
+    private static InvocationHandler timedStatement(Statement statement, ServerTiming timing) {
+        return (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute"))
+                return invoke(statement, method, args);
+
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                timing.add(ServerTiming.Phase.SQL, System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
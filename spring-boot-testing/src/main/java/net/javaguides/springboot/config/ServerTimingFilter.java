@@ -0,0 +1,64 @@
+package net.javaguides.springboot.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adds a Server-Timing header to requests that ask for it with the request header, or that are sampled.
+ * <p>
+ * The response body of a timed request is buffered so the header, which must precede the body, can include the
+ * serialization time. Requests that are not timed pass straight through.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final String requestHeader;
+
+    private final double sampleRate;
+
+    public ServerTimingFilter(String requestHeader, double sampleRate) {
+        this.requestHeader = requestHeader;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // the streaming export and the change feed must not be buffered
+        return request.getRequestURI().endsWith("/export") || request.getRequestURI().endsWith("/changes");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!isTimed(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ServerTiming timing = ServerTiming.begin();
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            timing.stop(ServerTiming.Phase.SERIALIZATION);
+            responseWrapper.setHeader(SERVER_TIMING_HEADER, timing.toHeaderValue());
+        } finally {
+            ServerTiming.end();
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private boolean isTimed(HttpServletRequest request) {
+        if (request.getHeader(requestHeader) != null)
+            return true;
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
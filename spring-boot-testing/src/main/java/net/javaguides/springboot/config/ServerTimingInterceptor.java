@@ -0,0 +1,25 @@
+package net.javaguides.springboot.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Adds the time spent in EmployeeService to the {@link ServerTiming} of sampled requests.
+ */
+public class ServerTimingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        ServerTiming timing = ServerTiming.current();
+        if (timing == null)
+            return invocation.proceed();
+
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            timing.add(ServerTiming.Phase.SERVICE, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records the duration of every invocation in a timer tagged with the layer, class and method name.
+ * <p>
+ * Timers are looked up once per {@link Method} and kept in a map, so an invocation costs a map lookup and two
+ * {@link System#nanoTime()} calls and allocates nothing, unlike building tags and calling {@link Timer#builder} per
+ * call.
+ */
+public class TimedInvocationInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "employees.invocations";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    private final String layer;
+
+    private final String className;
+
+    private final ConcurrentMap<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry called on the first invocation of each method, advisors are created before the registry
+     *                      is fully configured
+     * @param className class tag, or {@code null} to use the class declaring the invoked method
+     */
+    public TimedInvocationInterceptor(Supplier<MeterRegistry> meterRegistry, String layer, String className) {
+        this.meterRegistry = meterRegistry;
+        this.layer = layer;
+        this.className = className;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+
+        Timer[] methodTimers = timers.get(invocation.getMethod());
+        if (methodTimers == null)
+            methodTimers = timers.computeIfAbsent(invocation.getMethod(), this::createTimers);
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            methodTimers[success ? 0 : 1].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] createTimers(Method method) {
+        MeterRegistry registry = meterRegistry.get();
+        return new Timer[]{createTimer(registry, method, "success"), createTimer(registry, method, "error")};
+    }
+
+    private Timer createTimer(MeterRegistry registry, Method method, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Duration of controller, service and repository method invocations")
+                .tag("layer", layer)
+                .tag("class", className != null ? className : method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -1,12 +1,32 @@
 package net.javaguides.springboot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import net.javaguides.springboot.dto.CursorPage;
+import net.javaguides.springboot.dto.EmployeeChangesPage;
+import net.javaguides.springboot.dto.EmployeeSearchCriteria;
+import net.javaguides.springboot.dto.EmployeesVersion;
+import net.javaguides.springboot.dto.MultiGetResult;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeChangeFeed;
 import net.javaguides.springboot.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RequestMapping("/api/employees")
@@ -15,9 +35,16 @@ public class EmployeeController {
 
     private EmployeeService employeeService;
 
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    private ObjectMapper objectMapper;
+
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeChangeFeed employeeChangeFeed,
+                              ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.employeeChangeFeed = employeeChangeFeed;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -27,36 +54,240 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Employee> createEmployees(@RequestBody List<Employee> employees) {
+
+        return employeeService.saveEmployees(employees);
+    }
+
+    /**
+     * Full listing with an ETag of the whole table, a client sending it back in If-None-Match gets 304 Not Modified
+     * without the employees being read.
+     */
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<Employee>> getAllEmployees(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // taken before the employees are read: a change in between is in the body and gives another ETag next time,
+        // the other way round the client could keep a stale body for the ETag of the new state
+        String eTag = eTag(employeeService.getEmployeesVersion());
+        if (ifNoneMatch != null && matches(ifNoneMatch, eTag, true))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        return ResponseEntity.ok().eTag(eTag).body(employeeService.getAllEmployees());
     }
 
+    /**
+     * Keyset paginated listing, selected when the client sends {@code limit}.
+     * Pass the {@code next} value of a page as {@code cursor} to get the following one.
+     */
+    @GetMapping(params = {"limit", "!changedSince"})
+    public CursorPage<Employee> getEmployeesPage(@RequestParam(value = "cursor", required = false) String cursor,
+                                                 @RequestParam("limit") int limit) {
+        return employeeService.getEmployeesPage(cursor, limit);
+    }
+
+    /**
+     * Incremental sync, {@code GET /api/employees?changedSince=2026-10-16T00:00:00Z} returns the employees created or
+     * updated after the watermark and tombstones for the deleted ones, in keyset pages. Pass the {@code next} value
+     * of a page as {@code cursor}, and the {@code watermark} of the last page as {@code changedSince} next time.
+     */
+    @GetMapping(params = "changedSince")
+    public EmployeeChangesPage getEmployeesChangedSince(@RequestParam("changedSince") Instant changedSince,
+                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "limit", defaultValue = "0") int limit) {
+        return employeeChangeFeed.getChangesSince(changedSince, cursor, limit);
+    }
+
+    /**
+     * Search by lastName, firstName and email, each exact or a prefix ending with {@code *}, for example
+     * {@code /api/employees/search?lastName=Ro*&limit=50}. Pages work like the keyset listing.
+     */
+    @GetMapping("search")
+    public CursorPage<Employee> searchEmployees(EmployeeSearchCriteria criteria,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", defaultValue = "0") int limit) {
+        return employeeService.searchEmployees(criteria, cursor, limit);
+    }
+
+    /**
+     * Typeahead for people pickers, served from memory, for example {@code /api/employees/suggest?q=joan ro}.
+     */
+    @GetMapping("suggest")
+    public List<Employee> suggestEmployees(@RequestParam("q") String query,
+                                           @RequestParam(value = "limit", defaultValue = "0") int limit) {
+        return employeeService.suggestEmployees(query, limit);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Multi-get, {@code GET /api/employees?ids=1,2,3} resolves all the ids with IN queries instead of one request per
+     * id.
+     */
+    @GetMapping(params = "ids")
+    public MultiGetResult getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds) {
+        return employeeService.getEmployeesByIds(employeeIds);
+    }
+
+    /**
+     * Full directory export as newline delimited JSON, written row by row while the database streams them.
+     */
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees() {
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(Employee.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+
+            employeeService.exportEmployees(employee -> {
+                try {
+                    writer.writeValue(generator, employee);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        // set explicitly, the produces type alone is not written on the response of a streaming body
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Server-Sent Events stream of the committed changes, so consumers receive deltas instead of polling the
+     * directory. Reconnecting with the {@code Last-Event-ID} of the last event received resumes after it.
+     */
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return employeeChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * The employee with a strong ETag of its version. Spring MVC compares it with If-None-Match before writing the
+     * body, so a client with the current version gets 304 Not Modified without the employee being serialized, and
+     * the employee itself usually comes from the cache.
+     */
     @GetMapping("{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
         return employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee -> ResponseEntity.ok().eTag(eTag(employee)).body(employee))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * Full update. With If-Match the update only happens while the employee still has that ETag, otherwise the
+     * response is 412 Precondition Failed and the client should read the employee again. Without it the current row
+     * is updated, whatever the cached employee says.
+     */
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            try {
+                return employeeService.replaceEmployee(employeeId, employee)
+                        .map(updatedEmployee -> ResponseEntity.ok().eTag(eTag(updatedEmployee)).body(updatedEmployee))
+                        .orElseGet(() -> ResponseEntity.notFound().build());
+            } catch (OptimisticLockingFailureException ex) {
+                // another update committed between the read and the write of the same transaction
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
+            }
+        }
+
         return employeeService.getEmployeeById(employeeId)
                 .map(e -> {
-                    e.setFirstName(employee.getFirstName());
-                    e.setLastName(employee.getLastName());
-                    e.setEmail(employee.getEmail());
+                    if (!matches(ifMatch, eTag(e), false))
+                        return new ResponseEntity<Employee>(HttpStatus.PRECONDITION_FAILED);
+
+                    // a copy keeping the version read, the cached employee is only replaced once the update succeeded
+                    Employee changedEmployee = Employee.builder()
+                            .id(e.getId())
+                            .firstName(employee.getFirstName())
+                            .lastName(employee.getLastName())
+                            .email(employee.getEmail())
+                            .version(e.getVersion())
+                            .createdAt(e.getCreatedAt())
+                            .updatedAt(e.getUpdatedAt())
+                            .build();
+                    try {
+                        Employee updatedEmployee = employeeService.updateEmployee(changedEmployee);
+                        return ResponseEntity.ok().eTag(eTag(updatedEmployee)).body(updatedEmployee);
+                    } catch (OptimisticLockingFailureException ex) {
+                        // the employee was changed by someone else since it was read
+                        return new ResponseEntity<Employee>(HttpStatus.PRECONDITION_FAILED);
+                    }
+                }).orElseGet(() -> new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED));
+    }
 
-                    Employee updatedEmployee = employeeService.updateEmployee(e);
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-                }).orElseGet(() -> ResponseEntity.notFound().build());
+    /**
+     * Partial update, only the fields present in the body are written, in a single UPDATE.
+     */
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
+        return employeeService.patchEmployee(employeeId, employee)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
     @DeleteMapping("{id}")
     public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId) {
 
-        employeeService.deleteEmployee(employeeId);
+        try {
+            employeeService.deleteEmployee(employeeId);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<String>(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
         return new ResponseEntity<String>("Employee deleted successfully", HttpStatus.OK);
 
     }
+
+    /**
+     * Bulk delete of the ids in the JSON array body, run as chunked {@code DELETE ... WHERE id IN (...)} statements.
+     */
+    @DeleteMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> deleteEmployees(@RequestBody List<Long> employeeIds) {
+
+        int deleted = employeeService.deleteEmployees(employeeIds);
+        return new ResponseEntity<String>(deleted + " employees deleted successfully", HttpStatus.OK);
+    }
+
+    /**
+     * Bulk delete of every employee whose email belongs to the domain.
+     */
+    @DeleteMapping(params = "emailDomain")
+    public ResponseEntity<String> deleteEmployeesByEmailDomain(@RequestParam("emailDomain") String emailDomain) {
+
+        int deleted = employeeService.deleteEmployeesByEmailDomain(emailDomain);
+        return new ResponseEntity<String>(deleted + " employees deleted successfully", HttpStatus.OK);
+    }
+
+    private static String eTag(Employee employee) {
+        return "\"" + employee.getVersion() + "\"";
+    }
+
+    private static String eTag(EmployeesVersion version) {
+        long lastUpdatedAt = version.getLastUpdatedAt() == null ? 0L
+                : ChronoUnit.MICROS.between(Instant.EPOCH, version.getLastUpdatedAt());
+        return "\"" + version.getCount() + "-" + lastUpdatedAt + "\"";
+    }
+
+    /**
+     * Compare an If-Match or If-None-Match header, a list of ETags or {@code *}, with a strong ETag. If-None-Match
+     * uses the weak comparison, where {@code W/"3"} matches {@code "3"}; for If-Match weak ETags never match.
+     */
+    private static boolean matches(String header, String eTag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (weak && value.startsWith("W/"))
+                value = value.substring(2);
+            if (value.equals("*") || value.equals(eTag))
+                return true;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,31 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.springboot.model.Employee;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One page of the employees changed since a watermark: the employees created or updated, and a tombstone for every
+ * employee deleted.
+ * <p>
+ * {@code next} is an opaque cursor for the following page, or {@code null} when this is the last page. The last page
+ * carries the {@code watermark} to pass as {@code changedSince} to the next sync.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeChangesPage {
+
+    private List<Employee> employees;
+
+    private List<Tombstone> deleted;
+
+    private String next;
+
+    private Instant watermark;
+
+    public record Tombstone(long id, Instant deletedAt) {
+    }
+}
@@ -0,0 +1,22 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Filters of GET /api/employees/search. Each is an exact value, or a prefix when it ends with {@code *}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearchCriteria {
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+}
@@ -0,0 +1,22 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Cheap summary of the whole employees table that changes whenever an employee is created, updated or deleted,
+ * used as the ETag of the full listing.
+ * <p>
+ * Every insert and update moves {@code lastUpdatedAt} forward and every delete lowers {@code count}. The highest
+ * version would not do: an update of an employee with a lower version leaves it unchanged.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeesVersion {
+
+    private Long count;
+
+    private Instant lastUpdatedAt;
+}
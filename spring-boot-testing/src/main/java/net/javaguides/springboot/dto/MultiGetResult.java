@@ -0,0 +1,19 @@
+package net.javaguides.springboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.springboot.model.Employee;
+
+import java.util.List;
+
+/**
+ * Employees resolved by a multi-get, in the order the ids were requested, plus the ids that do not exist.
+ */
+@Getter
+@AllArgsConstructor
+public class MultiGetResult {
+
+    private List<Employee> employees;
+
+    private List<Long> notFound;
+}
@@ -0,0 +1,15 @@
+package net.javaguides.springboot.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The changes asked for are older than the retention of the change log, the client has to sync everything again.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class ChangesExpiredException extends RuntimeException{
+
+    public ChangesExpiredException(String message){
+        super(message);
+    }
+}
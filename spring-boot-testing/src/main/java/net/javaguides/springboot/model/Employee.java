@@ -1,19 +1,42 @@
 package net.javaguides.springboot.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@Table(name = "employees", uniqueConstraints = {
+        @UniqueConstraint(name = Employee.EMAIL_CONSTRAINT, columnNames = "email")
+}, indexes = {
+        // first and last name lookups, last name first so it also serves last name only searches
+        @Index(name = "idx_employees_last_name_first_name", columnList = "last_name, first_name"),
+        // changedSince sync, InnoDB appends the primary key so the index is read in (updated_at, id) order
+        @Index(name = "idx_employees_updated_at", columnList = "updated_at")
+})
 public class Employee {
 
+    public static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
+    public static final String ID_SEQUENCE = "employees_seq";
+
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Pooled sequence ids (a table backed sequence on MySQL) instead of IDENTITY:
+     * Hibernate knows the ids before inserting, so inserts can be sent as JDBC batches.
+     * The sequence is moved past the ids of existing rows at startup, see EmployeeSequenceInitializer.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     @Column(name = "first_name", nullable = false)
@@ -24,4 +47,41 @@ public class Employee {
 
     @Column(nullable = false)
     private String email;
+
+    /**
+     * Incremented by every update, an update of a stale copy fails with an optimistic locking exception.
+     */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    @Column(name = "created_at", updatable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant createdAt;
+
+    /**
+     * Watermark of the changedSince sync. Set on insert and update here, and by the partial update statement, which
+     * bypasses the entity.
+     */
+    @Column(name = "updated_at")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = now();
+    }
+
+    /**
+     * The current time at the microsecond precision of the timestamp columns, so the entity holds what was stored.
+     */
+    public static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
@@ -0,0 +1,49 @@
+package net.javaguides.springboot.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Outbox row for one change to an employee, written in the transaction that made the change.
+ * The id orders the changes and is the SSE event id of the change feed.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_changes", indexes = {
+        // retention purge
+        @Index(name = "idx_employee_changes_created_at", columnList = "created_at")
+})
+public class EmployeeChange {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    /**
+     * IDENTITY rather than a pooled sequence: ids are handed out in insert order, and since the row is inserted
+     * just before its transaction commits, that is close to commit order.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private Type type;
+
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+
+    /**
+     * JSON sent as the SSE data of the change: type, employeeId and the employee after the change, null for deletes.
+     */
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
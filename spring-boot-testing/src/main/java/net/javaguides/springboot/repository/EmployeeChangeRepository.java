@@ -0,0 +1,55 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+
+    /**
+     * Keyset page of the changes after the last one already delivered, in id order.
+     *
+     * @param id last id already delivered
+     * @param pageable page size, must use page number 0
+     * @return
+     */
+    List<EmployeeChange> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    Optional<EmployeeChange> findFirstByOrderByIdAsc();
+
+    Optional<EmployeeChange> findFirstByOrderByIdDesc();
+
+    /**
+     * Keyset page of the changes of one type after a position, in (createdAt, employeeId) order, read from the
+     * created_at index.
+     *
+     * @param type       change type
+     * @param createdAt  createdAt of the last change already returned, or the watermark for the first page
+     * @param employeeId employee id of the last change already returned, {@link Long#MAX_VALUE} for the first page
+     * @param until      newest createdAt returned
+     * @param pageable   page size, must use page number 0
+     * @return
+     */
+    @Query("select c from EmployeeChange c where c.type = :type and c.createdAt >= :createdAt"
+            + " and (c.createdAt > :createdAt or c.employeeId > :employeeId) and c.createdAt <= :until"
+            + " order by c.createdAt, c.employeeId")
+    List<EmployeeChange> findAfter(@Param("type") EmployeeChange.Type type, @Param("createdAt") Instant createdAt,
+                                   @Param("employeeId") long employeeId, @Param("until") Instant until,
+                                   Pageable pageable);
+
+    /**
+     * Ids of the changes older than the retention, oldest first, to be deleted in bounded chunks.
+     *
+     * @param before
+     * @param pageable chunk size, must use page number 0
+     * @return
+     */
+    @Query("select c.id from EmployeeChange c where c.createdAt < :before order by c.id")
+    List<Long> findIdsCreatedBefore(@Param("before") Instant before, Pageable pageable);
+}
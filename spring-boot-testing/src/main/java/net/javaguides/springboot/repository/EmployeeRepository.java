@@ -1,16 +1,120 @@
 package net.javaguides.springboot.repository;
 
+import jakarta.persistence.QueryHint;
+import net.javaguides.springboot.dto.EmployeesVersion;
 import net.javaguides.springboot.model.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
     Optional<Employee> findByEmail(String email);
 
+    /**
+     * Keyset page: employees whose id is greater than the last id already returned, in id order.
+     * Only the page size of the pageable is used, so the cost does not grow with the depth of the page.
+     *
+     * @param id last id of the previous page, 0 for the first page
+     * @param pageable page size, must use page number 0
+     * @return
+     */
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    /**
+     * Keyset page of the employees changed after a position, in (updatedAt, id) order, read from the updated_at index.
+     * The {@code >=} bound gives the index range, the second condition skips the rows of the position already returned.
+     *
+     * @param updatedAt updatedAt of the last employee already returned, or the watermark for the first page
+     * @param id        id of the last employee already returned, {@link Long#MAX_VALUE} for the first page
+     * @param until     newest updatedAt returned
+     * @param pageable  page size, must use page number 0
+     * @return
+     */
+    @Query("select e from Employee e where e.updatedAt >= :updatedAt and (e.updatedAt > :updatedAt or e.id > :id)"
+            + " and e.updatedAt <= :until order by e.updatedAt, e.id")
+    List<Employee> findChangedAfter(@Param("updatedAt") Instant updatedAt, @Param("id") long id,
+                                    @Param("until") Instant until, Pageable pageable);
+
+    /**
+     * Row count and newest updatedAt, the newest is read from the end of the updated_at index.
+     *
+     * @return
+     */
+    @Query("select new net.javaguides.springboot.dto.EmployeesVersion(count(e), max(e.updatedAt)) from Employee e")
+    EmployeesVersion findEmployeesVersion();
+
+    /**
+     * Stream every employee in id order without materializing the result set.
+     * With {@code useCursorFetch=true} on the MySQL URL the fetch size makes the driver read the rows
+     * through a server side cursor instead of buffering the whole table.
+     * Must be consumed inside a transaction and closed by the caller.
+     *
+     * @return
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    /**
+     * Delete with a single statement, unlike deleteById which loads the entity first.
+     *
+     * @param id
+     * @return number of deleted rows, 0 when there is no employee with that id
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = :id")
+    int deleteEmployeeById(@Param("id") long id);
+
+    /**
+     * The given ids that belong to an employee, with a single {@code SELECT ... WHERE id IN (...)} on the primary key.
+     * Callers should keep the collection to a bounded chunk size.
+     *
+     * @param ids
+     * @return
+     */
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Delete all the given ids with a single {@code DELETE ... WHERE id IN (...)} statement.
+     * Callers should keep the collection to a bounded chunk size.
+     *
+     * @param ids
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id in :ids")
+    int deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset page of the ids whose email matches a LIKE pattern, escaped with {@code !}.
+     *
+     * @param pattern
+     * @param id last id of the previous page, 0 for the first page
+     * @param pageable page size, must use page number 0
+     * @return
+     */
+    @Query("select e.id from Employee e where e.email like :pattern escape '!' and e.id > :id order by e.id")
+    List<Long> findIdsByEmailLike(@Param("pattern") String pattern, @Param("id") long id, Pageable pageable);
+
     /**
      * Define custom query using JPQL with index params
      *
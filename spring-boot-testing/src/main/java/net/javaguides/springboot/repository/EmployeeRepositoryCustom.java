@@ -0,0 +1,32 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Queries that need to be built at runtime, implemented in {@link EmployeeRepositoryCustomImpl}.
+ */
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Update only the non null fields of changes, in a single UPDATE statement and without loading the employee.
+     * updatedAt and version are updated as well.
+     *
+     * @param id      id of the employee to update
+     * @param changes fields to change, null fields are left untouched
+     * @return number of updated rows, 0 when there is no employee with that id
+     */
+    int updateNonNullFields(long id, Employee changes);
+
+    /**
+     * First employees matching the specification, in id order. Combine the specification with
+     * {@link EmployeeSpecifications#idGreaterThan} to get the following pages.
+     *
+     * @param specification search predicates
+     * @param limit         maximum number of employees returned
+     * @return
+     */
+    List<Employee> findPage(Specification<Employee> specification, int limit);
+}
@@ -0,0 +1,69 @@
+package net.javaguides.springboot.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private EntityManager entityManager;
+
+    @Autowired
+    public EmployeeRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int updateNonNullFields(long id, Employee changes) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+        Root<Employee> employee = update.from(Employee.class);
+
+        boolean changed = false;
+        if (changes.getFirstName() != null) {
+            update.set(employee.<String>get("firstName"), changes.getFirstName());
+            changed = true;
+        }
+        if (changes.getLastName() != null) {
+            update.set(employee.<String>get("lastName"), changes.getLastName());
+            changed = true;
+        }
+        if (changes.getEmail() != null) {
+            update.set(employee.<String>get("email"), changes.getEmail());
+            changed = true;
+        }
+        if (!changed)
+            throw new IllegalArgumentException("No fields to update for employee " + id);
+        // a bulk update skips the entity callbacks and the version check, keep both columns right by hand
+        update.set(employee.<Instant>get("updatedAt"), Employee.now());
+        update.set(employee.<Long>get("version"), cb.sum(employee.<Long>get("version"), 1L));
+
+        update.where(cb.equal(employee.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public List<Employee> findPage(Specification<Employee> specification, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+
+        query.where(specification.toPredicate(employee, query, cb))
+                .orderBy(cb.asc(employee.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
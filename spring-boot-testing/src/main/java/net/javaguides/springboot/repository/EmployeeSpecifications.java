@@ -0,0 +1,66 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Search predicates over the indexed employee columns. Only equality and prefix matches are offered, both can
+ * seek the (last_name, first_name) and email indexes, unlike a contains or suffix match.
+ */
+public final class EmployeeSpecifications {
+
+    /**
+     * Escape character of the LIKE patterns, portable between MySQL and H2.
+     */
+    public static final char LIKE_ESCAPE = '!';
+
+    private EmployeeSpecifications() {
+    }
+
+    public static Specification<Employee> lastNameIs(String lastName) {
+        return equalTo("lastName", lastName);
+    }
+
+    public static Specification<Employee> lastNameStartsWith(String prefix) {
+        return startsWith("lastName", prefix);
+    }
+
+    public static Specification<Employee> firstNameIs(String firstName) {
+        return equalTo("firstName", firstName);
+    }
+
+    public static Specification<Employee> firstNameStartsWith(String prefix) {
+        return startsWith("firstName", prefix);
+    }
+
+    public static Specification<Employee> emailIs(String email) {
+        return equalTo("email", email);
+    }
+
+    public static Specification<Employee> emailStartsWith(String prefix) {
+        return startsWith("email", prefix);
+    }
+
+    /**
+     * Keyset condition, employees after the last id of the previous page.
+     */
+    public static Specification<Employee> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Escape the LIKE wildcards of a value with {@link #LIKE_ESCAPE}, so it only matches literally.
+     */
+    public static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static Specification<Employee> equalTo(String attribute, String value) {
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    private static Specification<Employee> startsWith(String attribute, String prefix) {
+        String pattern = escapeLike(prefix) + "%";
+        return (root, query, cb) -> cb.like(root.get(attribute), pattern, LIKE_ESCAPE);
+    }
+}
@@ -0,0 +1,31 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeChangesPage;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+
+/**
+ * Committed employee changes, pushed as a Server-Sent Events stream read from the outbox, or pulled since a
+ * watermark by periodic sync jobs.
+ */
+public interface EmployeeChangeFeed {
+
+    /**
+     * Stream the changes after lastEventId, or the changes from now on when it is null. Each event has the change id
+     * as id, the change type as name and the change as JSON data. When lastEventId is older than the retained changes
+     * a {@code reset} event comes first, and the consumer should read the whole directory again.
+     */
+    SseEmitter subscribe(Long lastEventId);
+
+    /**
+     * Keyset page of the employees created, updated or deleted after changedSince. Pass the {@code next} value of a
+     * page as cursor to get the following one, and the {@code watermark} of the last page as changedSince to the
+     * next sync. The newest changes are left for the next sync until the write transactions that may still commit
+     * older ones are done, so the watermark lags behind the current time.
+     *
+     * @throws net.javaguides.springboot.exception.ChangesExpiredException when deletes after changedSince may have
+     *                                                                     been purged already
+     */
+    EmployeeChangesPage getChangesSince(Instant changedSince, String cursor, int limit);
+}
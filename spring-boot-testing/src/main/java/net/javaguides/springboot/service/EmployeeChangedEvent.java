@@ -0,0 +1,36 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+
+/**
+ * Published by {@link EmployeeService} for every employee it creates, updates or deletes, and again, without a
+ * transaction, by {@code EmployeeChangeFollower} for the committed changes of every instance.
+ * <p>
+ * Published inside the write transaction, before it commits. Listeners interested in committed changes should use
+ * {@code @TransactionalEventListener}, with {@code fallbackExecution = true} to also get events published by tests
+ * and tools that call the service without a transaction.
+ *
+ * @param type     kind of change
+ * @param id       id of the changed employee
+ * @param employee state after the change; null for deletes, and for patches where only the changed fields are known
+ */
+public record EmployeeChangedEvent(Type type, long id, Employee employee) {
+
+    public enum Type {CREATED, UPDATED, DELETED}
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(Type.CREATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent updated(Employee employee) {
+        return new EmployeeChangedEvent(Type.UPDATED, employee.getId(), employee);
+    }
+
+    public static EmployeeChangedEvent patched(long id) {
+        return new EmployeeChangedEvent(Type.UPDATED, id, null);
+    }
+
+    public static EmployeeChangedEvent deleted(long id) {
+        return new EmployeeChangedEvent(Type.DELETED, id, null);
+    }
+}
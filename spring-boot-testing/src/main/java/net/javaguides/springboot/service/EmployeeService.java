@@ -1,19 +1,87 @@
 package net.javaguides.springboot.service;
 
+import net.javaguides.springboot.dto.CursorPage;
+import net.javaguides.springboot.dto.EmployeeSearchCriteria;
+import net.javaguides.springboot.dto.EmployeesVersion;
+import net.javaguides.springboot.dto.MultiGetResult;
 import net.javaguides.springboot.model.Employee;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
 
     Employee saveEmployee(Employee employee);
 
+    List<Employee> saveEmployees(List<Employee> employees);
+
     List<Employee> getAllEmployees();
 
+    /**
+     * Summary of the employees table that changes with every create, update and delete, without loading the employees.
+     */
+    EmployeesVersion getEmployeesVersion();
+
+    CursorPage<Employee> getEmployeesPage(String cursor, int limit);
+
+    /**
+     * Keyset paginated search by last name, first name and email, each an exact value or a prefix ending with
+     * {@code *}. A first name needs a last name.
+     *
+     * @throws net.javaguides.springboot.exception.BadRequestException when the filters could not use an index
+     */
+    CursorPage<Employee> searchEmployees(EmployeeSearchCriteria criteria, String cursor, int limit);
+
+    /**
+     * Hand every employee to the consumer one at a time, in id order, without loading the table in memory.
+     */
+    void exportEmployees(Consumer<Employee> consumer);
+
     Optional<Employee> getEmployeeById(long id);
 
+    Optional<Employee> getEmployeeByEmail(String email);
+
+    /**
+     * Typeahead matches on first name, last name and email from the in memory suggestion index, best first.
+     * Every space separated term of the query must match.
+     */
+    List<Employee> suggestEmployees(String query, int limit);
+
+    /**
+     * Resolve many ids at once, keeping the request order and reporting the ids that were not found.
+     */
+    MultiGetResult getEmployeesByIds(List<Long> ids);
+
     Employee updateEmployee(Employee employee);
 
+    /**
+     * Full update of the current row, whatever version the caller read before. The row is read in the update
+     * transaction, not from the cache.
+     *
+     * @return empty when there is no employee with that id
+     */
+    Optional<Employee> replaceEmployee(long id, Employee employee);
+
+    /**
+     * Change only the non null fields of changes, without reading the employee first.
+     *
+     * @return false when there is no employee with that id
+     */
+    boolean patchEmployee(long id, Employee changes);
+
+    /**
+     * @throws net.javaguides.springboot.exception.ResourceNotFoundException when there is no employee with that id
+     */
     void deleteEmployee(long id);
+
+    /**
+     * @return number of deleted employees, ids that do not exist are ignored
+     */
+    int deleteEmployees(List<Long> ids);
+
+    /**
+     * @return number of deleted employees whose email belongs to the domain
+     */
+    int deleteEmployeesByEmailDomain(String domain);
 }
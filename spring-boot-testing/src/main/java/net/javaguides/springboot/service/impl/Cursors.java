@@ -0,0 +1,67 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL safe cursors so clients never depend on their layout.
+ */
+final class Cursors {
+
+    private Cursors() {
+    }
+
+    static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @param cursor cursor returned by a previous page, may be null or blank for the first page
+     * @return the last id of the previous page, or 0 to start from the beginning
+     */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return 0L;
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            long id = Long.parseLong(value);
+            if (id < 0)
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Position in a listing ordered by a timestamp, then by id.
+     */
+    record Position(Instant timestamp, long id) {
+    }
+
+    static String encode(Position position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((position.timestamp() + "," + position.id()).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @param cursor cursor returned by a previous page, not blank
+     * @return the timestamp and id of the last row of the previous page
+     */
+    static Position decodePosition(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = value.indexOf(',');
+            if (separator < 0)
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            return new Position(Instant.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects concurrent lookups by id and resolves them with a single {@code findAllById} query.
+ * <p>
+ * A batch is sent when the configured window has elapsed since its first id was queued, or as soon as it
+ * reaches the maximum batch size, whichever comes first. Full batches are queried on the calling thread. Batches
+ * closed by the window are queried on a pool of {@code employees.batch-loader.threads} loader threads, so a slow
+ * query does not hold back the windows of the next batches, which stay on a single timer thread.
+ * Disabled by default, see {@code employees.batch-loader.*}.
+ */
+@Component
+public class EmployeeBatchLoader implements DisposableBean {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final boolean enabled;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ExecutorService loaders;
+
+    private final Object lock = new Object();
+
+    private Map<Long, CompletableFuture<Optional<Employee>>> pending = new HashMap<>();
+
+    // incremented every time the pending batch is taken, so a stale window timer does not cut the next batch short
+    private long generation;
+
+    @Autowired
+    public EmployeeBatchLoader(EmployeeRepository employeeRepository,
+                               @Value("${employees.batch-loader.enabled:false}") boolean enabled,
+                               @Value("${employees.batch-loader.window:2ms}") Duration window,
+                               @Value("${employees.batch-loader.max-batch-size:100}") int maxBatchSize,
+                               @Value("${employees.batch-loader.threads:4}") int threads) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = enabled ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-batch-window");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        AtomicInteger loaderCount = new AtomicInteger();
+        this.loaders = enabled ? Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "employee-batch-loader-" + loaderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Blocking lookup through the current batch.
+     */
+    public Optional<Employee> get(long id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Optional<Employee>> load(long id) {
+
+        if (!enabled)
+            throw new IllegalStateException("Employee batch loader is disabled");
+
+        CompletableFuture<Optional<Employee>> future;
+        Map<Long, CompletableFuture<Optional<Employee>>> fullBatch = null;
+        synchronized (lock) {
+            future = pending.get(id);
+            if (future != null)
+                return future;
+
+            future = new CompletableFuture<>();
+            pending.put(id, future);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if (pending.size() == 1) {
+                long batchGeneration = generation;
+                scheduler.schedule(() -> dispatchWindow(batchGeneration), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (fullBatch != null)
+            dispatch(fullBatch);
+        return future;
+    }
+
+    private void dispatchWindow(long batchGeneration) {
+        Map<Long, CompletableFuture<Optional<Employee>>> batch;
+        synchronized (lock) {
+            if (batchGeneration != generation || pending.isEmpty())
+                return;
+            batch = takePending();
+        }
+        try {
+            loaders.execute(() -> dispatch(batch));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private Map<Long, CompletableFuture<Optional<Employee>>> takePending() {
+        Map<Long, CompletableFuture<Optional<Employee>>> batch = pending;
+        pending = new HashMap<>();
+        generation++;
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<Employee>>> batch) {
+        try {
+            Map<Long, Employee> employeesById = new HashMap<>(batch.size() * 2);
+            for (Employee employee : employeeRepository.findAllById(batch.keySet()))
+                employeesById.put(employee.getId(), employee);
+
+            batch.forEach((id, future) -> future.complete(Optional.ofNullable(employeesById.get(id))));
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+        if (loaders != null)
+            loaders.shutdownNow();
+    }
+}
@@ -0,0 +1,118 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.EmployeeChangesPage;
+import net.javaguides.springboot.exception.ChangesExpiredException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeChangeFeed;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Republishes the changes of every instance, read from the {@link EmployeeChangeFeed}, as
+ * {@link EmployeeChangedEvent}s, so the in memory copies of this instance also follow the writes made on the others.
+ * <p>
+ * The feed is pulled since a watermark taken at startup, before the copies are loaded, so nothing committed after the
+ * load is missed, and every {@code employees.changes.follow-interval} after that. The changes of this instance come
+ * back too, later than its own events; listeners keep the newest version of an employee and ignore upserts of
+ * employees they just deleted. The events are published outside of a transaction, so they are applied right away
+ * and the outbox does not record them again.
+ */
+@Component
+public class EmployeeChangeFollower implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeFollower.class);
+
+    private final EmployeeChangeFeed changeFeed;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EmployeeWriteTracker writeTracker;
+
+    private final Duration followInterval;
+
+    private final ScheduledExecutorService scheduler;
+
+    // only moved by the follower thread
+    private volatile Instant watermark;
+
+    @Autowired
+    public EmployeeChangeFollower(EmployeeChangeFeed changeFeed, ApplicationEventPublisher eventPublisher,
+                                  EmployeeWriteTracker writeTracker,
+                                  @Value("${employees.changes.follow-interval:1s}") Duration followInterval) {
+        this.changeFeed = changeFeed;
+        this.eventPublisher = eventPublisher;
+        this.writeTracker = writeTracker;
+        this.followInterval = followInterval;
+        this.watermark = writeTracker.settledUntil(Employee.now());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-follower");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::followQuietly, followInterval.toMillis(), followInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publish the changes since the watermark, then move the watermark to the one of the last page.
+     */
+    public void follow() {
+        Instant changedSince = watermark;
+        String cursor = null;
+        EmployeeChangesPage page;
+        do {
+            page = changeFeed.getChangesSince(changedSince, cursor, EmployeeChangeRelay.MAX_SYNC_PAGE_SIZE);
+            // ids are never reused, an employee on the page was not deleted before it was read
+            for (Employee employee : page.getEmployees())
+                eventPublisher.publishEvent(EmployeeChangedEvent.updated(employee));
+            for (EmployeeChangesPage.Tombstone tombstone : page.getDeleted())
+                eventPublisher.publishEvent(EmployeeChangedEvent.deleted(tombstone.id()));
+            cursor = page.getNext();
+        } while (cursor != null);
+        watermark = page.getWatermark();
+    }
+
+    /**
+     * @return instant up to which the changes of every instance were published
+     */
+    public Instant watermark() {
+        return watermark;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void followQuietly() {
+        try {
+            follow();
+        } catch (ChangesExpiredException e) {
+            // the deletes since the watermark are gone, only a restart reloads a complete copy
+            log.error("Employee changes since {} were purged, the in memory copies miss the deletes made on other "
+                    + "instances until the next restart", watermark, e);
+            watermark = writeTracker.settledUntil(Employee.now());
+        } catch (RuntimeException e) {
+            // a scheduled task that throws would not run again
+            log.warn("Could not follow employee changes", e);
+        }
+    }
+}
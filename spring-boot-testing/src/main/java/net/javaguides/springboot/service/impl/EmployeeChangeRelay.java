@@ -0,0 +1,339 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.EmployeeChangesPage;
+import net.javaguides.springboot.exception.ChangesExpiredException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays the outbox to the SSE subscribers of the change feed from a single thread.
+ * <p>
+ * Every poll groups the subscribers by the last change they received and reads one batch of changes per group, so
+ * the subscribers that are up to date share a single query however many there are, and a subscriber resuming from an
+ * old {@code Last-Event-ID} catches up one batch per poll without holding the others back. Polling stops while
+ * there are no subscribers.
+ * <p>
+ * Outbox ids are allocated on insert and a transaction can commit after one that inserted a higher id, so a missing
+ * id is only skipped once the change after it is older than the gap timeout; until then delivery stops before it.
+ * Changes older than the retention are purged in chunks.
+ * <p>
+ * Sync jobs pull the same changes with {@link #getChangesSince}: the employees whose updatedAt is after the watermark,
+ * merged with the deletes of the outbox as tombstones. Both timestamps are taken before the transaction commits, so
+ * the returned watermark stays at {@link EmployeeWriteTracker#settledUntil}: before the oldest write transaction still
+ * open in this instance, and at least {@code employees.changes.sync-gap-timeout} in the past, which must be longer
+ * than the write transactions of the other instances, or the changes of a slower one are missed by the sync jobs.
+ */
+@Component
+public class EmployeeChangeRelay implements EmployeeChangeFeed, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeRelay.class);
+
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    public static final int DEFAULT_SYNC_PAGE_SIZE = 500;
+
+    public static final int MAX_SYNC_PAGE_SIZE = 1000;
+
+    private final EmployeeChangeRepository changeRepository;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeWriteTracker writeTracker;
+
+    private final Duration pollInterval;
+
+    private final int batchSize;
+
+    private final Duration gapTimeout;
+
+    private final Duration heartbeat;
+
+    private final Duration timeout;
+
+    private final Duration retention;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private Instant lastHeartbeat = Instant.now();
+
+    @Autowired
+    public EmployeeChangeRelay(EmployeeChangeRepository changeRepository, EmployeeRepository employeeRepository,
+                               EmployeeWriteTracker writeTracker,
+                               @Value("${employees.changes.poll-interval:200ms}") Duration pollInterval,
+                               @Value("${employees.changes.batch-size:500}") int batchSize,
+                               @Value("${employees.changes.gap-timeout:1s}") Duration gapTimeout,
+                               @Value("${employees.changes.heartbeat:15s}") Duration heartbeat,
+                               @Value("${employees.changes.timeout:30m}") Duration timeout,
+                               @Value("${employees.changes.retention:7d}") Duration retention) {
+        this.changeRepository = changeRepository;
+        this.employeeRepository = employeeRepository;
+        this.writeTracker = writeTracker;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.gapTimeout = gapTimeout;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        this.retention = retention;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, PURGE_INTERVAL.toMillis(), PURGE_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long lastEventId) {
+
+        boolean reset = false;
+        long cursor;
+        if (lastEventId == null) {
+            cursor = changeRepository.findFirstByOrderByIdDesc().map(EmployeeChange::getId).orElse(0L);
+        } else {
+            cursor = lastEventId;
+            // the changes right after lastEventId were purged, resuming would silently lose them
+            long oldest = changeRepository.findFirstByOrderByIdAsc().map(EmployeeChange::getId).orElse(Long.MAX_VALUE);
+            if (oldest != Long.MAX_VALUE && oldest > lastEventId + 1) {
+                reset = true;
+                cursor = oldest - 1;
+            }
+        }
+
+        SseEmitter emitter = newEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, cursor, reset);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Deliver the changes committed since the last poll, at most one batch per subscriber.
+     */
+    public void poll() {
+
+        if (subscribers.isEmpty())
+            return;
+
+        Map<Long, List<Subscriber>> byCursor = new LinkedHashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.reset && send(subscriber, SseEmitter.event().name("reset").data("{}", MediaType.APPLICATION_JSON)))
+                subscriber.reset = false;
+            byCursor.computeIfAbsent(subscriber.cursor, cursor -> new ArrayList<>()).add(subscriber);
+        }
+
+        Instant now = Instant.now();
+        byCursor.forEach((cursor, group) -> {
+            List<EmployeeChange> changes = visible(cursor,
+                    changeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, batchSize)), now);
+            if (changes.isEmpty())
+                return;
+            for (Subscriber subscriber : group) {
+                for (EmployeeChange change : changes) {
+                    if (!send(subscriber, SseEmitter.event()
+                            .id(String.valueOf(change.getId()))
+                            .name(change.getType().name())
+                            .data(change.getPayload(), MediaType.APPLICATION_JSON)))
+                        break;
+                    subscriber.cursor = change.getId();
+                }
+            }
+        });
+
+        // comments keep proxies from closing idle streams and find the subscribers that went away
+        if (Duration.between(lastHeartbeat, now).compareTo(heartbeat) >= 0) {
+            lastHeartbeat = now;
+            for (Subscriber subscriber : subscribers)
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    @Override
+    public EmployeeChangesPage getChangesSince(Instant changedSince, String cursor, int limit) {
+
+        Instant now = Instant.now();
+        // the purge only deletes changes older than the retention, deletes after changedSince are all still there
+        if (changedSince.isBefore(now.minus(retention)))
+            throw new ChangesExpiredException("Changes since " + changedSince + " are no longer retained, "
+                    + "every employee has to be read again");
+
+        Cursors.Position after = cursor == null || cursor.isBlank()
+                ? new Cursors.Position(changedSince, Long.MAX_VALUE)
+                : Cursors.decodePosition(cursor);
+        int pageSize = limit <= 0 ? DEFAULT_SYNC_PAGE_SIZE : Math.min(limit, MAX_SYNC_PAGE_SIZE);
+        // a change is timestamped before its transaction commits, the newest ones may still be joined by older ones
+        Instant until = writeTracker.settledUntil(now);
+
+        // fetch one extra row of each kind to know whether there is a next page without a count query
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Employee> changed = employeeRepository.findChangedAfter(after.timestamp(), after.id(), until, page);
+        List<EmployeeChange> deletes = changeRepository.findAfter(EmployeeChange.Type.DELETED, after.timestamp(),
+                after.id(), until, page);
+
+        // merge both in (timestamp, id) order, neither list runs out early since a page takes at most pageSize of one
+        List<Employee> employees = new ArrayList<>();
+        List<EmployeeChangesPage.Tombstone> deleted = new ArrayList<>();
+        Cursors.Position last = after;
+        int nextChanged = 0;
+        int nextDelete = 0;
+        while (employees.size() + deleted.size() < pageSize
+                && (nextChanged < changed.size() || nextDelete < deletes.size())) {
+            Cursors.Position changedPosition = nextChanged < changed.size()
+                    ? new Cursors.Position(changed.get(nextChanged).getUpdatedAt(), changed.get(nextChanged).getId()) : null;
+            Cursors.Position deletePosition = nextDelete < deletes.size()
+                    ? new Cursors.Position(deletes.get(nextDelete).getCreatedAt(), deletes.get(nextDelete).getEmployeeId()) : null;
+            if (deletePosition == null || changedPosition != null && compare(changedPosition, deletePosition) <= 0) {
+                employees.add(changed.get(nextChanged++));
+                last = changedPosition;
+            } else {
+                deleted.add(new EmployeeChangesPage.Tombstone(deletePosition.id(), deletePosition.timestamp()));
+                nextDelete++;
+                last = deletePosition;
+            }
+        }
+
+        if (nextChanged < changed.size() || nextDelete < deletes.size())
+            return new EmployeeChangesPage(employees, deleted, Cursors.encode(last), null);
+        // a changedSince newer than until must not move the client's watermark back
+        return new EmployeeChangesPage(employees, deleted, null, until.isAfter(changedSince) ? until : changedSince);
+    }
+
+    /**
+     * Delete the changes older than the retention.
+     *
+     * @return number of deleted changes
+     */
+    public int purge() {
+        Instant before = Instant.now().minus(retention);
+        int deleted = 0;
+        List<Long> ids;
+        do {
+            ids = changeRepository.findIdsCreatedBefore(before, PageRequest.of(0, PURGE_CHUNK_SIZE));
+            if (!ids.isEmpty())
+                changeRepository.deleteAllByIdInBatch(ids);
+            deleted += ids.size();
+        } while (ids.size() == PURGE_CHUNK_SIZE);
+        return deleted;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        for (Subscriber subscriber : subscribers)
+            subscriber.emitter.complete();
+        subscribers.clear();
+    }
+
+    protected SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * The changes that can be delivered after cursor: up to the first missing id that may still be committed.
+     */
+    private List<EmployeeChange> visible(long cursor, List<EmployeeChange> changes, Instant now) {
+        Instant settled = now.minus(gapTimeout);
+        long expected = cursor + 1;
+        for (int i = 0; i < changes.size(); i++) {
+            EmployeeChange change = changes.get(i);
+            if (change.getId() != expected && change.getCreatedAt().isAfter(settled))
+                return changes.subList(0, i);
+            expected = change.getId() + 1;
+        }
+        return changes;
+    }
+
+    private static int compare(Cursors.Position first, Cursors.Position second) {
+        int byTimestamp = first.timestamp().compareTo(second.timestamp());
+        return byTimestamp != 0 ? byTimestamp : Long.compare(first.id(), second.id());
+    }
+
+    /**
+     * @return false when the subscriber is gone, it is then removed
+     */
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // a scheduled task that throws would not run again
+            log.warn("Could not relay employee changes", e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            log.warn("Could not purge employee changes", e);
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // last change id sent, only used by the relay thread
+        private long cursor;
+
+        private boolean reset;
+
+        private Subscriber(SseEmitter emitter, long cursor, boolean reset) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Source of every employee for the in memory structures built at startup, {@link EmployeeSuggestionIndex} and
+ * {@link InMemoryEmployeeService}.
+ * <p>
+ * Without a snapshot the table is read with a keyset scan. With {@code employees.snapshot.enabled=true} an
+ * {@link EmployeeSnapshot} is written to local disk periodically and on shutdown, and a restart reads the employees
+ * from it instead. The snapshot records the instant up to which every change is in it; the restart catches up from
+ * there through the updated_at index and the DELETED tombstones of the outbox, the same reads as the changedSince
+ * sync, and replaces or drops the snapshot rows changed since. Changes committed after the catch up reach the in
+ * memory structures as {@link EmployeeChangedEvent}s. A missing, unreadable or too old snapshot falls back to the
+ * keyset scan, as does one older than {@code employees.changes.retention}, whose tombstones may have been purged.
+ * <p>
+ * The next snapshots are written from the in memory store when it is loaded, which has every change up to the
+ * watermark of the {@link EmployeeChangeFollower}. Without the store they are written from the previous snapshot
+ * caught up the same way, so only the changes since it are read from the database.
+ */
+@Component
+public class EmployeeDataset implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeDataset.class);
+
+    static final int PAGE_SIZE = 1000;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeChangeRepository changeRepository;
+
+    private final EmployeeWriteTracker writeTracker;
+
+    private final ObjectProvider<InMemoryEmployeeService> inMemoryEmployeeService;
+
+    private final EmployeeChangeFollower changeFollower;
+
+    private final boolean snapshotEnabled;
+
+    private final Path snapshotFile;
+
+    private final Duration snapshotInterval;
+
+    private final Duration snapshotMaxAge;
+
+    private final Duration changeRetention;
+
+    private final ScheduledExecutorService scheduler;
+
+    private boolean snapshotOpened;
+
+    // snapshot the startup load used with its catch up, kept until the first snapshot is written
+    private CaughtUpSnapshot startSnapshot;
+
+    @Autowired
+    public EmployeeDataset(EmployeeRepository employeeRepository, EmployeeChangeRepository changeRepository,
+                           EmployeeWriteTracker writeTracker,
+                           ObjectProvider<InMemoryEmployeeService> inMemoryEmployeeService,
+                           EmployeeChangeFollower changeFollower,
+                           @Value("${employees.snapshot.enabled:false}") boolean snapshotEnabled,
+                           @Value("${employees.snapshot.file:employees.snapshot}") Path snapshotFile,
+                           @Value("${employees.snapshot.interval:10m}") Duration snapshotInterval,
+                           @Value("${employees.snapshot.max-age:1d}") Duration snapshotMaxAge,
+                           @Value("${employees.changes.retention:7d}") Duration changeRetention) {
+        this.employeeRepository = employeeRepository;
+        this.changeRepository = changeRepository;
+        this.writeTracker = writeTracker;
+        this.inMemoryEmployeeService = inMemoryEmployeeService;
+        this.changeFollower = changeFollower;
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotMaxAge = snapshotMaxAge;
+        this.changeRetention = changeRetention;
+        this.scheduler = snapshotEnabled ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Hand every employee to the consumer in id order, one page at a time.
+     */
+    public void forEachPage(Consumer<List<Employee>> consumer) {
+        CaughtUpSnapshot start = startSnapshot();
+        if (start == null)
+            forEachTablePage(consumer);
+        else
+            forEachMergedPage(start, consumer);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!snapshotEnabled)
+            return;
+        scheduler.scheduleWithFixedDelay(this::writeSnapshotQuietly, snapshotInterval.toMillis(),
+                snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write the current employees to the snapshot file, replacing it atomically once complete.
+     * Read from the in memory store when there is one, else from the previous snapshot and the changes since, else
+     * from the table.
+     */
+    public EmployeeSnapshot.Header writeSnapshot() throws IOException {
+
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            EmployeeSnapshot.Header header;
+            try (EmployeeSnapshot.Writer writer = EmployeeSnapshot.writer(temporaryFile)) {
+                InMemoryEmployeeService store = inMemoryEmployeeService.getIfAvailable();
+                Consumer<Employee> add = employee -> {
+                    try {
+                        writer.add(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+                Instant changedUntil;
+                if (store != null && store.isLoaded()) {
+                    // the follower applied every change up to its watermark to the store, taken before the walk
+                    changedUntil = changeFollower.watermark();
+                    store.forEachEmployee(add);
+                } else {
+                    CaughtUpSnapshot previous = openSnapshot();
+                    if (previous != null) {
+                        changedUntil = previous.changedUntil();
+                        forEachMergedPage(previous, page -> page.forEach(add));
+                    } else {
+                        // taken before the scan, which sees every change committed up to it
+                        changedUntil = writeTracker.settledUntil(Employee.now());
+                        forEachTablePage(page -> page.forEach(add));
+                    }
+                }
+                header = writer.finish(changedUntil);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return header;
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler == null)
+            return;
+        scheduler.shutdownNow();
+        // the freshest snapshot for the restart that usually follows, only when it is cheap to write
+        InMemoryEmployeeService store = inMemoryEmployeeService.getIfAvailable();
+        if (store != null && store.isLoaded())
+            writeSnapshotQuietly();
+    }
+
+    private synchronized CaughtUpSnapshot startSnapshot() {
+        if (!snapshotEnabled || snapshotOpened)
+            return startSnapshot;
+        snapshotOpened = true;
+        startSnapshot = openSnapshot();
+        return startSnapshot;
+    }
+
+    /**
+     * @return the snapshot file caught up with the changes since it was written, null when it cannot be used
+     */
+    private CaughtUpSnapshot openSnapshot() {
+        try {
+            EmployeeSnapshot snapshot = EmployeeSnapshot.open(snapshotFile);
+            Instant now = Employee.now();
+            Duration age = Duration.between(snapshot.header().writtenAt(), now);
+            if (age.compareTo(snapshotMaxAge) >= 0) {
+                log.info("Ignoring employee snapshot {} written {} ago", snapshotFile, age);
+                return null;
+            }
+            if (snapshot.header().changedUntil().isBefore(now.minus(changeRetention))) {
+                log.info("Ignoring employee snapshot {}, the deletes since {} may have been purged", snapshotFile,
+                        snapshot.header().changedUntil());
+                return null;
+            }
+            return catchUp(snapshot, now);
+        } catch (NoSuchFileException e) {
+            log.info("No employee snapshot at {}", snapshotFile);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable employee snapshot {}", snapshotFile, e);
+        }
+        return null;
+    }
+
+    /**
+     * Read the employees changed and deleted after the snapshot, in (timestamp, id) keyset pages.
+     */
+    private CaughtUpSnapshot catchUp(EmployeeSnapshot snapshot, Instant now) {
+
+        // taken before the reads, which see every change committed up to it
+        Instant changedUntil = writeTracker.settledUntil(now);
+        PageRequest pageRequest = PageRequest.of(0, PAGE_SIZE);
+
+        NavigableMap<Long, Employee> changed = new TreeMap<>();
+        Instant updatedAt = snapshot.header().changedUntil();
+        long id = Long.MAX_VALUE;
+        List<Employee> rows;
+        do {
+            rows = employeeRepository.findChangedAfter(updatedAt, id, now, pageRequest);
+            for (Employee row : rows)
+                changed.put(row.getId(), row);
+            if (!rows.isEmpty()) {
+                updatedAt = rows.get(rows.size() - 1).getUpdatedAt();
+                id = rows.get(rows.size() - 1).getId();
+            }
+        } while (rows.size() == PAGE_SIZE);
+
+        Set<Long> deleted = new HashSet<>();
+        Instant createdAt = snapshot.header().changedUntil();
+        long employeeId = Long.MAX_VALUE;
+        List<EmployeeChange> deletes;
+        do {
+            deletes = changeRepository.findAfter(EmployeeChange.Type.DELETED, createdAt, employeeId, now, pageRequest);
+            for (EmployeeChange delete : deletes) {
+                // deleted after the rows were read
+                changed.remove(delete.getEmployeeId());
+                deleted.add(delete.getEmployeeId());
+            }
+            if (!deletes.isEmpty()) {
+                createdAt = deletes.get(deletes.size() - 1).getCreatedAt();
+                employeeId = deletes.get(deletes.size() - 1).getEmployeeId();
+            }
+        } while (deletes.size() == PAGE_SIZE);
+
+        log.info("Catching up employee snapshot of {} employees with {} changed and {} deleted since {}",
+                snapshot.header().count(), changed.size(), deleted.size(), snapshot.header().changedUntil());
+        return new CaughtUpSnapshot(snapshot, changedUntil, changed, deleted);
+    }
+
+    /**
+     * Merge the snapshot and the rows changed since, both in id order, the changed row replaces the snapshot row.
+     */
+    private void forEachMergedPage(CaughtUpSnapshot caughtUp, Consumer<List<Employee>> consumer) {
+        List<Employee> page = new ArrayList<>(PAGE_SIZE);
+        Iterator<Employee> changed = caughtUp.changed().values().iterator();
+        Employee nextChanged = changed.hasNext() ? changed.next() : null;
+        for (Employee employee : caughtUp.snapshot()) {
+            while (nextChanged != null && nextChanged.getId() < employee.getId()) {
+                page = add(page, nextChanged, consumer);
+                nextChanged = changed.hasNext() ? changed.next() : null;
+            }
+            if (nextChanged != null && nextChanged.getId() == employee.getId()) {
+                page = add(page, nextChanged, consumer);
+                nextChanged = changed.hasNext() ? changed.next() : null;
+            } else if (!caughtUp.deleted().contains(employee.getId())) {
+                page = add(page, employee, consumer);
+            }
+        }
+        while (nextChanged != null) {
+            page = add(page, nextChanged, consumer);
+            nextChanged = changed.hasNext() ? changed.next() : null;
+        }
+        if (!page.isEmpty())
+            consumer.accept(page);
+    }
+
+    private void forEachTablePage(Consumer<List<Employee>> consumer) {
+        long afterId = 0L;
+        List<Employee> page;
+        do {
+            page = employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, PAGE_SIZE));
+            if (!page.isEmpty()) {
+                consumer.accept(page);
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private synchronized void releaseStartSnapshot() {
+        // later calls to forEachPage read the table
+        startSnapshot = null;
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            EmployeeSnapshot.Header header = writeSnapshot();
+            log.debug("Wrote employee snapshot {} of {} employees", snapshotFile, header.count());
+        } catch (IOException | RuntimeException e) {
+            // the previous snapshot stays in place, a scheduled task that throws would not run again
+            log.warn("Could not write employee snapshot {}", snapshotFile, e);
+        } finally {
+            // the startup load is long done
+            releaseStartSnapshot();
+        }
+    }
+
+    private static List<Employee> add(List<Employee> page, Employee employee, Consumer<List<Employee>> consumer) {
+        page.add(employee);
+        if (page.size() < PAGE_SIZE)
+            return page;
+        consumer.accept(page);
+        return new ArrayList<>(PAGE_SIZE);
+    }
+
+    /**
+     * @param changedUntil instant up to which every change is in the merged employees
+     * @param changed      employees changed or created after the snapshot, by id
+     * @param deleted      ids deleted after the snapshot
+     */
+    private record CaughtUpSnapshot(EmployeeSnapshot snapshot, Instant changedUntil,
+                                    NavigableMap<Long, Employee> changed, Set<Long> deleted) {
+    }
+}
@@ -0,0 +1,99 @@
+package net.javaguides.springboot.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes an {@link EmployeeChange} row for every {@link EmployeeChangedEvent} published inside a transaction, as
+ * part of that transaction, so the outbox has a row exactly for the changes that committed.
+ * <p>
+ * The events of a transaction are collected and inserted with one JDBC batch just before the commit, so a batch
+ * create of thousands of employees does not pay one round trip per outbox row; with
+ * {@code rewriteBatchedStatements=true} MySQL receives multi-row INSERTs. Events published outside of a transaction,
+ * like the changes of other instances republished by {@link EmployeeChangeFollower}, do not describe new changes and
+ * are not recorded.
+ */
+@Component
+public class EmployeeOutbox {
+
+    static final String INSERT = "insert into employee_changes (change_type, employee_id, payload, created_at) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public EmployeeOutbox(JdbcTemplate jdbcTemplate, EmployeeRepository employeeRepository, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.employeeRepository = employeeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive())
+            return;
+
+        @SuppressWarnings("unchecked")
+        List<EmployeeChangedEvent> pending = (List<EmployeeChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<EmployeeChangedEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeOutbox.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void write(List<EmployeeChangedEvent> events) {
+        Timestamp createdAt = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (EmployeeChangedEvent event : events) {
+            EmployeeChange.Type type = EmployeeChange.Type.valueOf(event.type().name());
+            // a patch only knows the changed fields, the row updated by this transaction has the rest
+            Employee employee = type == EmployeeChange.Type.DELETED ? null
+                    : event.employee() != null ? event.employee()
+                    : employeeRepository.findById(event.id()).orElse(null);
+            rows.add(new Object[]{type.name(), event.id(), payload(type, event.id(), employee), createdAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    private String payload(EmployeeChange.Type type, long employeeId, Employee employee) {
+        try {
+            return objectMapper.writeValueAsString(new Payload(type, employeeId, employee));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the change of employee " + employeeId, e);
+        }
+    }
+
+    private record Payload(EmployeeChange.Type type, long employeeId, Employee employee) {
+    }
+}
@@ -1,34 +1,141 @@
 package net.javaguides.springboot.service.impl;
 
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.dto.CursorPage;
+import net.javaguides.springboot.dto.EmployeeSearchCriteria;
+import net.javaguides.springboot.dto.EmployeesVersion;
+import net.javaguides.springboot.dto.MultiGetResult;
+import net.javaguides.springboot.exception.BadRequestException;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.repository.EmployeeSpecifications;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
 import net.javaguides.springboot.service.EmployeeService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Rows flushed per JDBC batch, keep in sync with hibernate.jdbc.batch_size.
+     */
+    public static final int BATCH_SIZE = 50;
+
+    public static final int MAX_BATCH_EMPLOYEES = 10_000;
+
+    /**
+     * Ids per {@code DELETE ... WHERE id IN (...)} statement.
+     */
+    public static final int DELETE_CHUNK_SIZE = 1000;
+
+    /**
+     * Ids per {@code SELECT ... WHERE id IN (...)} statement of a multi-get.
+     */
+    public static final int LOOKUP_CHUNK_SIZE = 1000;
+
     private EmployeeRepository employeeRepository;
 
+    private EntityManager entityManager;
+
+    private EmployeeBatchLoader employeeBatchLoader;
+
+    private EmployeeSuggestionIndex suggestionIndex;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeWriteTracker writeTracker;
+
+    private final SingleFlight<Long, Optional<Employee>> idLookups = new SingleFlight<>();
+
+    private final SingleFlight<String, Optional<Employee>> emailLookups = new SingleFlight<>();
+
     @Autowired
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               EmployeeBatchLoader employeeBatchLoader, EmployeeSuggestionIndex suggestionIndex,
+                               ApplicationEventPublisher eventPublisher, EmployeeWriteTracker writeTracker) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.employeeBatchLoader = employeeBatchLoader;
+        this.suggestionIndex = suggestionIndex;
+        this.eventPublisher = eventPublisher;
+        this.writeTracker = writeTracker;
     }
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
 
-        Optional<Employee> existingEmployee = employeeRepository.findByEmail(employee.getEmail());
+        writeTracker.begin();
+        // the unique constraint on email does the duplicate check in the same round trip as the insert
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmail(e, "Employee already exist with given email: " + employee.getEmail());
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> saveEmployees(List<Employee> employees) {
+
+        if (employees.size() > MAX_BATCH_EMPLOYEES)
+            throw new BadRequestException("At most " + MAX_BATCH_EMPLOYEES + " employees can be created at once");
 
-        if (existingEmployee.isPresent())
-            throw new ResourceNotFoundException("Employee already exist with given email: " + employee.getEmail());
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if (!emails.add(employee.getEmail()))
+                throw new ResourceNotFoundException("Employee already exist with given email: " + employee.getEmail());
+        }
 
-        return employeeRepository.save(employee);
+        writeTracker.begin();
+        List<Employee> savedEmployees = new ArrayList<>(employees.size());
+        for (int from = 0; from < employees.size(); from += BATCH_SIZE) {
+            List<Employee> batch = employees.subList(from, Math.min(from + BATCH_SIZE, employees.size()));
+            savedEmployees.addAll(employeeRepository.saveAll(batch));
+
+            // send the batch now and drop the managed entities so memory stays bounded by one batch,
+            // emails already stored are rejected by the unique constraint during the flush
+            try {
+                employeeRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateEmail(e, "Employee already exist with one of the given emails");
+            }
+            entityManager.clear();
+        }
+        savedEmployees.forEach(employee -> eventPublisher.publishEvent(EmployeeChangedEvent.created(employee)));
+        return savedEmployees;
     }
 
     @Override
@@ -37,17 +144,280 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    public EmployeesVersion getEmployeesVersion() {
+        return employeeRepository.findEmployeesVersion();
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesPage(String cursor, int limit) {
+
+        long afterId = Cursors.decode(cursor);
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        // fetch one extra row to know whether there is a next page without a count query
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+
+        if (employees.size() <= pageSize)
+            return new CursorPage<>(employees, null);
+
+        List<Employee> page = employees.subList(0, pageSize);
+        return new CursorPage<>(page, Cursors.encode(page.get(pageSize - 1).getId()));
+    }
+
+    @Override
+    public CursorPage<Employee> searchEmployees(EmployeeSearchCriteria criteria, String cursor, int limit) {
+
+        if (isBlank(criteria.getFirstName()) && isBlank(criteria.getLastName()) && isBlank(criteria.getEmail()))
+            throw new BadRequestException("At least one of firstName, lastName or email is required");
+        // the name index starts with last_name, a first name alone could only be found by a full scan
+        if (!isBlank(criteria.getFirstName()) && isBlank(criteria.getLastName()))
+            throw new BadRequestException("firstName can only be searched together with lastName");
+
+        long afterId = Cursors.decode(cursor);
+        int pageSize = limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+
+        Specification<Employee> specification = EmployeeSpecifications.idGreaterThan(afterId)
+                .and(filter(criteria.getLastName(), EmployeeSpecifications::lastNameIs, EmployeeSpecifications::lastNameStartsWith))
+                .and(filter(criteria.getFirstName(), EmployeeSpecifications::firstNameIs, EmployeeSpecifications::firstNameStartsWith))
+                .and(filter(criteria.getEmail(), EmployeeSpecifications::emailIs, EmployeeSpecifications::emailStartsWith));
+
+        // fetch one extra row to know whether there is a next page without a count query
+        List<Employee> employees = employeeRepository.findPage(specification, pageSize + 1);
+
+        if (employees.size() <= pageSize)
+            return new CursorPage<>(employees, null);
+
+        List<Employee> page = employees.subList(0, pageSize);
+        return new CursorPage<>(page, Cursors.encode(page.get(pageSize - 1).getId()));
+    }
+
+    /**
+     * An exact match, or a prefix match when the value ends with {@code *}. A {@code *} anywhere else is rejected,
+     * since only prefixes can use an index.
+     *
+     * @return null when there is no value, which {@link Specification#and} ignores
+     */
+    private static Specification<Employee> filter(String value,
+                                                  Function<String, Specification<Employee>> exact,
+                                                  Function<String, Specification<Employee>> prefix) {
+        if (isBlank(value))
+            return null;
+        int wildcard = value.indexOf('*');
+        if (wildcard < 0)
+            return exact.apply(value);
+        if (wildcard == 0 || wildcard != value.length() - 1)
+            throw new BadRequestException("Only prefix searches ending with * are supported: " + value);
+        return prefix.apply(value.substring(0, wildcard));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<Employee> consumer) {
+
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                // keep the persistence context from growing with every streamed row
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    /**
+     * Read through the employees cache, an empty result is cached as well with a shorter TTL.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public Optional<Employee> getEmployeeById(long id) {
-        return employeeRepository.findById(id);
+
+        // concurrent misses for the same id share one load
+        return idLookups.execute(id, () -> employeeBatchLoader.isEnabled()
+                ? employeeBatchLoader.get(id)
+                : employeeRepository.findById(id));
+    }
+
+    @Override
+    public List<Employee> suggestEmployees(String query, int limit) {
+        return suggestionIndex.suggest(query, limit);
     }
 
     @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return emailLookups.execute(email, () -> employeeRepository.findByEmail(email));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MultiGetResult getEmployeesByIds(List<Long> ids) {
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Employee> employeesById = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            employeeRepository.findAllById(distinctIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinctIds.size())))
+                    .forEach(employee -> employeesById.put(employee.getId(), employee));
+        }
+
+        // findAllById returns the rows in no particular order
+        List<Employee> employees = new ArrayList<>(employeesById.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Employee employee = employeesById.get(id);
+            if (employee != null)
+                employees.add(employee);
+            else
+                notFound.add(id);
+        }
+        return new MultiGetResult(employees, notFound);
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        writeTracker.begin();
+        // flushed here, so the event and the outbox payload carry the new version and updatedAt, and a duplicate
+        // email is reported as such
+        Employee updatedEmployee;
+        try {
+            updatedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmail(e, "Employee already exist with given email: " + employee.getEmail());
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(updatedEmployee));
+        return updatedEmployee;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public Optional<Employee> replaceEmployee(long id, Employee employee) {
+
+        writeTracker.begin();
+        Optional<Employee> current = employeeRepository.findById(id);
+        if (current.isEmpty())
+            return Optional.empty();
+
+        Employee changedEmployee = current.get();
+        changedEmployee.setFirstName(employee.getFirstName());
+        changedEmployee.setLastName(employee.getLastName());
+        changedEmployee.setEmail(employee.getEmail());
+        // flushed here, so the returned employee has its new version and a duplicate email is reported as such
+        Employee updatedEmployee;
+        try {
+            updatedEmployee = employeeRepository.saveAndFlush(changedEmployee);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmail(e, "Employee already exist with given email: " + employee.getEmail());
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(updatedEmployee));
+        return Optional.of(updatedEmployee);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public boolean patchEmployee(long id, Employee changes) {
+
+        if (changes.getFirstName() == null && changes.getLastName() == null && changes.getEmail() == null)
+            throw new BadRequestException("At least one of firstName, lastName or email is required");
+
+        writeTracker.begin();
+        boolean updated;
+        try {
+            updated = employeeRepository.updateNonNullFields(id, changes) > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmail(e, "Employee already exist with given email: " + changes.getEmail());
+        }
+        if (updated)
+            eventPublisher.publishEvent(EmployeeChangedEvent.patched(id));
+        return updated;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public void deleteEmployee(long id) {
-        employeeRepository.deleteById(id);
+
+        writeTracker.begin();
+        if (employeeRepository.deleteEmployeeById(id) == 0)
+            throw new ResourceNotFoundException("Employee not found with id: " + id);
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public int deleteEmployees(List<Long> ids) {
+
+        writeTracker.begin();
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            // only the ids that exist are deleted and published, unknown ids would become tombstones in the change feed
+            List<Long> existingIds = employeeRepository.findExistingIds(
+                    distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size())));
+            if (existingIds.isEmpty())
+                continue;
+            deleted += employeeRepository.deleteEmployeesByIds(existingIds);
+            existingIds.forEach(id -> eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id)));
+        }
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public int deleteEmployeesByEmailDomain(String domain) {
+
+        if (domain == null || domain.isBlank() || domain.contains("@"))
+            throw new BadRequestException("Invalid email domain: " + domain);
+
+        // '!' is the escape character declared by the query, it is portable between MySQL and H2
+        writeTracker.begin();
+        String pattern = "%@" + EmployeeSpecifications.escapeLike(domain);
+        int deleted = 0;
+        long afterId = 0L;
+        List<Long> ids;
+        do {
+            // walk the matching ids in keyset chunks, each chunk is removed with one IN statement
+            ids = employeeRepository.findIdsByEmailLike(pattern, afterId, PageRequest.of(0, DELETE_CHUNK_SIZE));
+            if (ids.isEmpty())
+                break;
+            deleted += employeeRepository.deleteEmployeesByIds(ids);
+            ids.forEach(id -> eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id)));
+            afterId = ids.get(ids.size() - 1);
+        } while (ids.size() == DELETE_CHUNK_SIZE);
+        return deleted;
+    }
+
+    /**
+     * @return number of getEmployeeById calls that waited on a load for the same id started by another caller
+     */
+    public long getCollapsedIdLookups() {
+        return idLookups.getCollapsedCount();
+    }
+
+    /**
+     * @return number of getEmployeeByEmail calls that waited on a load for the same email started by another caller
+     */
+    public long getCollapsedEmailLookups() {
+        return emailLookups.getCollapsedCount();
+    }
+
+    /**
+     * Map a violation of the email unique constraint to the duplicate email error,
+     * any other integrity violation is rethrown as is.
+     */
+    private static RuntimeException duplicateEmail(DataIntegrityViolationException e, String message) {
+
+        if (e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(Employee.EMAIL_CONSTRAINT))
+            return new ResourceNotFoundException(message, e);
+
+        return e;
     }
 }
@@ -0,0 +1,277 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary file with every employee, read through a memory mapped {@link FileChannel}.
+ * <p>
+ * Layout, big endian:
+ * <pre>
+ * header   int magic "EMPS", int version, long writtenAt (epoch millis), long changedUntil (epoch micros),
+ *          int count, int nameCount, long namesOffset
+ * records  count x (long id, long version, long createdAt, long updatedAt (epoch micros), int firstName,
+ *          int lastName, int emailLength, email UTF-8 bytes), in id order
+ * names    nameCount x (int length, UTF-8 bytes), referenced by position from the records
+ * trailer  int CRC32 of everything before it
+ * </pre>
+ * Names are written once however many employees have them. A null value is written as reference or length -1, a
+ * null timestamp as {@link Long#MIN_VALUE}. A file with another magic, another version or a wrong checksum is rejected
+ * with an {@link IOException}.
+ */
+public final class EmployeeSnapshot implements Iterable<Employee> {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x454D5053;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 8;
+
+    private static final int TRAILER_SIZE = 4;
+
+    private static final int NULL = -1;
+
+    private final Header header;
+
+    private final ByteBuffer buffer;
+
+    private final String[] names;
+
+    private EmployeeSnapshot(Header header, ByteBuffer buffer, String[] names) {
+        this.header = header;
+        this.buffer = buffer;
+        this.names = names;
+    }
+
+    /**
+     * @param version      format version of the file
+     * @param writtenAt    when the file was written
+     * @param changedUntil every change with an updatedAt, or a delete with a createdAt, up to this instant is in the
+     *                     file, later ones are caught up from the table and the outbox
+     * @param count        number of employees
+     */
+    public record Header(int version, Instant writtenAt, Instant changedUntil, int count) {
+    }
+
+    /**
+     * Map the file and check its version and checksum. The mapping stays valid after the file is replaced.
+     */
+    public static EmployeeSnapshot open(Path file) throws IOException {
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE + TRAILER_SIZE || channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Invalid employee snapshot size " + channel.size() + ": " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException("Not an employee snapshot: " + file);
+        int version = buffer.getInt(4);
+        if (version != VERSION)
+            throw new IOException("Unsupported employee snapshot version " + version + ": " + file);
+
+        int crcOffset = buffer.limit() - TRAILER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, crcOffset));
+        if ((int) crc.getValue() != buffer.getInt(crcOffset))
+            throw new IOException("Corrupted employee snapshot: " + file);
+
+        Header header = new Header(version, Instant.ofEpochMilli(buffer.getLong(8)),
+                EmployeeStore.instant(buffer.getLong(16)), buffer.getInt(24));
+        int nameCount = buffer.getInt(28);
+        ByteBuffer namesBuffer = buffer.slice(Math.toIntExact(buffer.getLong(32)), crcOffset - Math.toIntExact(buffer.getLong(32)));
+        String[] names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++)
+            names[i] = readString(namesBuffer);
+
+        return new EmployeeSnapshot(header, buffer, names);
+    }
+
+    public static Writer writer(Path file) throws IOException {
+        return new Writer(file);
+    }
+
+    public Header header() {
+        return header;
+    }
+
+    /**
+     * Decodes the employees in id order, each call walks the mapping from the start.
+     */
+    @Override
+    public Iterator<Employee> iterator() {
+        ByteBuffer records = buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE);
+        return new Iterator<>() {
+
+            private int remaining = header.count();
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Employee next() {
+                if (remaining == 0)
+                    throw new NoSuchElementException();
+                remaining--;
+                return Employee.builder()
+                        .id(records.getLong())
+                        .version(records.getLong())
+                        .createdAt(EmployeeStore.instant(records.getLong()))
+                        .updatedAt(EmployeeStore.instant(records.getLong()))
+                        .firstName(name(records.getInt()))
+                        .lastName(name(records.getInt()))
+                        .email(readString(records))
+                        .build();
+            }
+        };
+    }
+
+    private String name(int reference) {
+        return reference == NULL ? null : names[reference];
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL)
+            return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Streams employees, which must come in increasing id order, to a new snapshot file. The header is filled in
+     * by {@link #finish(Instant)}, a file that was not finished has no checksum and is rejected by {@link #open(Path)}.
+     */
+    public static final class Writer implements Closeable {
+
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        private final Map<String, Integer> nameReferences = new HashMap<>();
+
+        private long position = HEADER_SIZE;
+
+        private long lastId;
+
+        private int count;
+
+        private Writer(Path file) throws IOException {
+            // readable as well, the checksum is computed by mapping the written file
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        public void add(Employee employee) throws IOException {
+            if (employee.getId() <= lastId)
+                throw new IllegalArgumentException("Employees must be added in increasing id order: " + employee.getId());
+            byte[] email = bytes(employee.getEmail());
+            ensureRoom(8 + 8 + 8 + 8 + 4 + 4 + 4 + (email == null ? 0 : email.length));
+            buffer.putLong(employee.getId());
+            buffer.putLong(employee.getVersion());
+            buffer.putLong(EmployeeStore.micros(employee.getCreatedAt()));
+            buffer.putLong(EmployeeStore.micros(employee.getUpdatedAt()));
+            buffer.putInt(reference(employee.getFirstName()));
+            buffer.putInt(reference(employee.getLastName()));
+            putBytes(email);
+            lastId = employee.getId();
+            count++;
+        }
+
+        /**
+         * Writes the names, the header and the checksum. Only a finished file can be opened.
+         *
+         * @param changedUntil instant up to which every change is in the added employees, taken before reading them
+         */
+        public Header finish(Instant changedUntil) throws IOException {
+            long namesOffset = position + buffer.position();
+            String[] names = new String[nameReferences.size()];
+            nameReferences.forEach((name, reference) -> names[reference] = name);
+            for (String name : names) {
+                byte[] bytes = bytes(name);
+                ensureRoom(4 + bytes.length);
+                putBytes(bytes);
+            }
+            flush();
+
+            long writtenAt = System.currentTimeMillis();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(writtenAt)
+                    .putLong(EmployeeStore.micros(changedUntil))
+                    .putInt(count)
+                    .putInt(names.length)
+                    .putLong(namesOffset)
+                    .flip();
+            channel.write(header, 0);
+
+            // the header is only known at the end, so the checksum is computed over the written file,
+            // which is still in the page cache
+            CRC32 crc = new CRC32();
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, position));
+            channel.write(ByteBuffer.allocate(TRAILER_SIZE).putInt((int) crc.getValue()).flip(), position);
+            channel.force(true);
+            return new Header(VERSION, Instant.ofEpochMilli(writtenAt), changedUntil, count);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private int reference(String name) {
+            if (name == null)
+                return NULL;
+            return nameReferences.computeIfAbsent(name, key -> nameReferences.size());
+        }
+
+        private void putBytes(byte[] bytes) {
+            if (bytes == null) {
+                buffer.putInt(NULL);
+                return;
+            }
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void ensureRoom(int size) throws IOException {
+            if (buffer.remaining() >= size)
+                return;
+            flush();
+            if (size > buffer.capacity())
+                throw new IOException("Employee too large for the snapshot buffer: " + size + " bytes");
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                position += channel.write(buffer, position);
+            buffer.clear();
+        }
+
+        private static byte[] bytes(String value) {
+            return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
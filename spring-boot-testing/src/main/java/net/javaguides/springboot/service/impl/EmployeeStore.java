@@ -0,0 +1,390 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.EmployeesVersion;
+import net.javaguides.springboot.model.Employee;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact in memory copy of the employees table, keyed by the primitive id.
+ * <p>
+ * An open addressing table with linear probing keeps one row per slot in parallel arrays: the id as a {@code long},
+ * the first and last name as {@code int} references into a {@link StringTable} shared by every row, the email as
+ * UTF-8 bytes, the version and the createdAt and updatedAt timestamps as {@code long} epoch microseconds, the
+ * precision of the database columns. There is no boxed key, no map entry and no entity per employee, and a name like
+ * "Smith" is stored once however many employees have it. Entities are only created when a row is read, so callers get
+ * their own copy.
+ * <p>
+ * Thread safe, reads share a read lock and only wait for writes.
+ */
+public class EmployeeStore {
+
+    private static final int MIN_CAPACITY = 16;
+
+    // id 0 is never generated by employees_seq, so it marks an empty slot
+    private static final long EMPTY = 0L;
+
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final StringTable names = new StringTable();
+
+    private long[] ids;
+
+    private int[] firstNames;
+
+    private int[] lastNames;
+
+    private byte[][] emails;
+
+    private long[] versions;
+
+    private long[] createdAts;
+
+    private long[] updatedAts;
+
+    private int size;
+
+    // newest updatedAt ever stored, kept when that employee is deleted
+    private long lastUpdatedAt = NULL_TIMESTAMP;
+
+    public EmployeeStore() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of employees the store holds without resizing
+     */
+    public EmployeeStore(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public Employee get(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = find(id);
+            return slot < 0 ? null : employee(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return every employee in id order
+     */
+    public List<Employee> getAll() {
+        lock.readLock().lock();
+        try {
+            List<Employee> employees = new ArrayList<>(size);
+            for (long id : sortedIds())
+                employees.add(employee(find(id)));
+            return employees;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ids of every employee, in increasing order
+     */
+    public long[] ids() {
+        lock.readLock().lock();
+        try {
+            return sortedIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Employee employee) {
+        if (employee.getId() <= 0)
+            throw new IllegalArgumentException("Employee id must be positive: " + employee.getId());
+        lock.writeLock().lock();
+        try {
+            store(employee);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Store the employee unless the stored one has the same or a newer version, so changes applied out of order do
+     * not bring an older state back.
+     *
+     * @return false when the stored employee was kept
+     */
+    public boolean putIfNewer(Employee employee) {
+        if (employee.getId() <= 0)
+            throw new IllegalArgumentException("Employee id must be positive: " + employee.getId());
+        lock.writeLock().lock();
+        try {
+            int slot = find(employee.getId());
+            if (slot >= 0 && versions[slot] >= employee.getVersion())
+                return false;
+            store(employee);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false when there was no employee with that id
+     */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(id);
+            if (slot < 0)
+                return false;
+            // backward shift deletion: move later rows of the probe sequence into the hole, so lookups never
+            // need tombstones
+            int mask = ids.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (ids[next] != EMPTY) {
+                int home = home(ids[next]);
+                // the row at next may fill the hole when its home slot is not cyclically in (hole, next]
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    move(next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            clear(hole);
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same summary as the database one: every put of a created or updated employee moves {@code lastUpdatedAt}
+     * forward and every remove lowers {@code count}.
+     */
+    public EmployeesVersion version() {
+        lock.readLock().lock();
+        try {
+            return new EmployeesVersion((long) size, instant(lastUpdatedAt));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of distinct first and last names stored
+     */
+    public int distinctNames() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void store(Employee employee) {
+        // size * 4 >= capacity * 3 keeps the load factor at most 0.75
+        if ((size + 1) * 4L > ids.length * 3L)
+            resize(ids.length * 2);
+        int slot = slotFor(employee.getId());
+        if (ids[slot] == EMPTY) {
+            ids[slot] = employee.getId();
+            size++;
+        }
+        firstNames[slot] = names.intern(employee.getFirstName());
+        lastNames[slot] = names.intern(employee.getLastName());
+        emails[slot] = employee.getEmail() == null ? null : employee.getEmail().getBytes(StandardCharsets.UTF_8);
+        versions[slot] = employee.getVersion();
+        createdAts[slot] = micros(employee.getCreatedAt());
+        updatedAts[slot] = micros(employee.getUpdatedAt());
+        lastUpdatedAt = Math.max(lastUpdatedAt, updatedAts[slot]);
+    }
+
+    private long[] sortedIds() {
+        long[] sortedIds = new long[size];
+        int count = 0;
+        for (long id : ids) {
+            if (id != EMPTY)
+                sortedIds[count++] = id;
+        }
+        Arrays.sort(sortedIds);
+        return sortedIds;
+    }
+
+    private Employee employee(int slot) {
+        return Employee.builder()
+                .id(ids[slot])
+                .firstName(names.get(firstNames[slot]))
+                .lastName(names.get(lastNames[slot]))
+                .email(emails[slot] == null ? null : new String(emails[slot], StandardCharsets.UTF_8))
+                .version(versions[slot])
+                .createdAt(instant(createdAts[slot]))
+                .updatedAt(instant(updatedAts[slot]))
+                .build();
+    }
+
+    private int find(long id) {
+        if (id == EMPTY)
+            return -1;
+        int slot = slotFor(id);
+        return ids[slot] == id ? slot : -1;
+    }
+
+    /**
+     * @return the slot holding the id, or the empty slot where it would be inserted
+     */
+    private int slotFor(long id) {
+        int mask = ids.length - 1;
+        int slot = home(id);
+        while (ids[slot] != EMPTY && ids[slot] != id)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private int home(long id) {
+        return mix(id) & (ids.length - 1);
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        firstNames[to] = firstNames[from];
+        lastNames[to] = lastNames[from];
+        emails[to] = emails[from];
+        versions[to] = versions[from];
+        createdAts[to] = createdAts[from];
+        updatedAts[to] = updatedAts[from];
+    }
+
+    private void clear(int slot) {
+        ids[slot] = EMPTY;
+        emails[slot] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldIds = ids;
+        int[] oldFirstNames = firstNames;
+        int[] oldLastNames = lastNames;
+        byte[][] oldEmails = emails;
+        long[] oldVersions = versions;
+        long[] oldCreatedAts = createdAts;
+        long[] oldUpdatedAts = updatedAts;
+        allocate(capacity);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] == EMPTY)
+                continue;
+            int slot = slotFor(oldIds[i]);
+            ids[slot] = oldIds[i];
+            firstNames[slot] = oldFirstNames[i];
+            lastNames[slot] = oldLastNames[i];
+            emails[slot] = oldEmails[i];
+            versions[slot] = oldVersions[i];
+            createdAts[slot] = oldCreatedAts[i];
+            updatedAts[slot] = oldUpdatedAts[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        firstNames = new int[capacity];
+        lastNames = new int[capacity];
+        emails = new byte[capacity][];
+        versions = new long[capacity];
+        createdAts = new long[capacity];
+        updatedAts = new long[capacity];
+    }
+
+    static long micros(Instant instant) {
+        return instant == null ? NULL_TIMESTAMP : ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    static Instant instant(long micros) {
+        return micros == NULL_TIMESTAMP ? null : Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, expectedSize * 4L / 3 + 1);
+        return (int) Math.min(1L << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * Sequential ids would otherwise fill consecutive slots and make long probe runs after a few removals.
+     */
+    static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Append only table of distinct strings, each referenced by its position. Names that no employee uses anymore
+     * stay in the table, which is bounded by the number of distinct names ever stored.
+     */
+    static final class StringTable {
+
+        private static final int NULL_REFERENCE = -1;
+
+        private String[] values = new String[MIN_CAPACITY];
+
+        // open addressing index of values: position + 1, 0 for an empty slot
+        private int[] slots = new int[MIN_CAPACITY * 2];
+
+        private int size;
+
+        int intern(String value) {
+            if (value == null)
+                return NULL_REFERENCE;
+            int mask = slots.length - 1;
+            int slot = value.hashCode() & mask;
+            while (slots[slot] != 0) {
+                if (values[slots[slot] - 1].equals(value))
+                    return slots[slot] - 1;
+                slot = (slot + 1) & mask;
+            }
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size] = value;
+            slots[slot] = ++size;
+            // keep the index at most half full
+            if (size * 2 > slots.length)
+                rehash(slots.length * 2);
+            return size - 1;
+        }
+
+        String get(int reference) {
+            return reference == NULL_REFERENCE ? null : values[reference];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = values[i].hashCode() & mask;
+                while (slots[slot] != 0)
+                    slot = (slot + 1) & mask;
+                slots[slot] = i + 1;
+            }
+        }
+    }
+}
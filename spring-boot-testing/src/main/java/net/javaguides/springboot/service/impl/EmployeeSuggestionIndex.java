@@ -0,0 +1,495 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In memory typeahead index over first name, last name and email.
+ * <p>
+ * Every employee gets a document number, handed out again once the employee is deleted, and every trigram of its
+ * lower cased first name, last name and email has a sorted {@code int[]} posting list of document numbers. One and
+ * two letter prefixes of each value have posting lists too, so the first keystrokes are served as prefix matches. A
+ * query term of three letters or more is looked up by intersecting the posting lists of its trigrams, starting with
+ * the shortest, and the candidates are checked against the document, since trigrams alone can match in the wrong
+ * order. Terms separated by spaces must all match.
+ * <p>
+ * Built at startup from the {@link EmployeeDataset} and kept current by {@link EmployeeChangedEvent}s once their
+ * transaction commits, including the changes of other instances republished by {@link EmployeeChangeFollower}. As in
+ * {@link InMemoryEmployeeService}, a document is only replaced by a newer version of the employee, and a deleted
+ * employee is not brought back by an upsert arriving late. Reads share a read lock, so they run concurrently and only
+ * wait for writes.
+ */
+@Component
+public class EmployeeSuggestionIndex {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    public static final int MAX_LIMIT = 50;
+
+    /**
+     * Candidates checked and ranked per query, bounds the cost of very common prefixes.
+     */
+    static final int MAX_CANDIDATES = 10_000;
+
+    private static final int GRAM = 3;
+
+    private static final String PREFIX_KEY = "^";
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeDataset employeeDataset;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final DocumentNumbers documentNumbers = new DocumentNumbers();
+
+    private Document[] documents = new Document[1024];
+
+    private int nextDocumentNumber;
+
+    // numbers of deleted employees, reused before nextDocumentNumber so churn does not grow documents
+    private int[] freeDocumentNumbers = new int[16];
+
+    private int freeCount;
+
+    private final EmployeeTombstones tombstones = new EmployeeTombstones();
+
+    // ids deleted before the initial load is done, from the start, so a page or a snapshot row read before the delete
+    // does not bring them back
+    private Set<Long> deletedWhileBuilding = new HashSet<>();
+
+    @Autowired
+    public EmployeeSuggestionIndex(EmployeeRepository employeeRepository, EmployeeDataset employeeDataset) {
+        this.employeeRepository = employeeRepository;
+        this.employeeDataset = employeeDataset;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        try {
+            employeeDataset.forEachPage(employees -> write(() -> {
+                for (Employee employee : employees) {
+                    // an employee changed since the page was read is already indexed with a newer version
+                    if (!deletedWhileBuilding.contains(employee.getId()))
+                        upsert(employee);
+                }
+            }));
+        } finally {
+            write(() -> deletedWhileBuilding = null);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        // a patch only knows the changed fields, the committed row has the rest
+        Employee employee = event.type() == EmployeeChangedEvent.Type.DELETED ? null
+                : event.employee() != null ? event.employee()
+                : employeeRepository.findById(event.id()).orElse(null);
+        write(() -> {
+            if (employee == null) {
+                remove(event.id());
+                tombstones.add(event.id());
+                if (deletedWhileBuilding != null)
+                    deletedWhileBuilding.add(event.id());
+            } else if (!tombstones.contains(event.id())) {
+                upsert(employee);
+            }
+        });
+    }
+
+    /**
+     * Best matches for the query: whole value matches first, then prefix matches, then matches inside a value,
+     * names ahead of emails.
+     */
+    public List<Employee> suggest(String query, int limit) {
+
+        List<String> terms = terms(query);
+        if (terms.isEmpty())
+            return List.of();
+        int size = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (String term : terms) {
+                for (String key : queryKeys(term)) {
+                    Postings list = postings.get(key);
+                    if (list == null)
+                        return List.of();
+                    lists.add(list);
+                }
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            PriorityQueue<Match> best = new PriorityQueue<>(size + 1, Match.WORST_FIRST);
+            Postings shortest = lists.get(0);
+            int checked = 0;
+            for (int i = 0; i < shortest.size && checked < MAX_CANDIDATES; i++) {
+                int documentNumber = shortest.documents[i];
+                if (!containsAll(lists, documentNumber))
+                    continue;
+                checked++;
+                Document document = documents[documentNumber];
+                int score = document.score(terms);
+                if (score > 0) {
+                    best.add(new Match(document, score));
+                    if (best.size() > size)
+                        best.poll();
+                }
+            }
+
+            Match[] matches = best.toArray(new Match[0]);
+            Arrays.sort(matches, Match.WORST_FIRST.reversed());
+            List<Employee> employees = new ArrayList<>(matches.length);
+            for (Match match : matches)
+                employees.add(match.document().toEmployee());
+            return employees;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentNumbers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void upsert(Employee employee) {
+        int documentNumber = documentNumbers.get(employee.getId());
+        if (documentNumber >= 0 && documents[documentNumber].version() >= employee.getVersion())
+            return;
+        Document document = Document.of(employee);
+        Set<String> oldKeys = Set.of();
+        if (documentNumber < 0) {
+            documentNumber = newDocumentNumber();
+            documentNumbers.put(employee.getId(), documentNumber);
+        } else {
+            oldKeys = documents[documentNumber].keys();
+        }
+        documents[documentNumber] = document;
+
+        // the document number is kept on updates, only the keys that changed are touched
+        Set<String> newKeys = document.keys();
+        for (String key : oldKeys) {
+            if (!newKeys.contains(key))
+                removePosting(key, documentNumber);
+        }
+        for (String key : newKeys) {
+            if (!oldKeys.contains(key))
+                postings.computeIfAbsent(key, k -> new Postings()).add(documentNumber);
+        }
+    }
+
+    private int newDocumentNumber() {
+        if (freeCount > 0)
+            return freeDocumentNumbers[--freeCount];
+        if (nextDocumentNumber == documents.length)
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        return nextDocumentNumber++;
+    }
+
+    private void remove(long id) {
+        int documentNumber = documentNumbers.remove(id);
+        if (documentNumber < 0)
+            return;
+        for (String key : documents[documentNumber].keys())
+            removePosting(key, documentNumber);
+        documents[documentNumber] = null;
+        if (freeCount == freeDocumentNumbers.length)
+            freeDocumentNumbers = Arrays.copyOf(freeDocumentNumbers, freeCount * 2);
+        freeDocumentNumbers[freeCount++] = documentNumber;
+    }
+
+    private void removePosting(String key, int documentNumber) {
+        Postings list = postings.get(key);
+        if (list != null && list.remove(documentNumber) && list.size == 0)
+            postings.remove(key);
+    }
+
+    private static boolean containsAll(List<Postings> lists, int documentNumber) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(documentNumber))
+                return false;
+        }
+        return true;
+    }
+
+    static List<String> terms(String query) {
+        if (query == null)
+            return List.of();
+        List<String> terms = new ArrayList<>();
+        for (String term : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            if (!term.isEmpty())
+                terms.add(term);
+        }
+        return terms;
+    }
+
+    private static Set<String> queryKeys(String term) {
+        if (term.length() < GRAM)
+            return Set.of(PREFIX_KEY + term);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= term.length(); i++)
+            keys.add(term.substring(i, i + GRAM));
+        return keys;
+    }
+
+    private static void addKeys(Set<String> keys, String value) {
+        for (int length = 1; length < GRAM && length <= value.length(); length++)
+            keys.add(PREFIX_KEY + value.substring(0, length));
+        for (int i = 0; i + GRAM <= value.length(); i++)
+            keys.add(value.substring(i, i + GRAM));
+    }
+
+    /**
+     * Sorted list of document numbers, growing with adds and shrinking with removes.
+     */
+    private static final class Postings {
+
+        private static final int MIN_CAPACITY = 4;
+
+        private int[] documents = new int[MIN_CAPACITY];
+
+        private int size;
+
+        void add(int documentNumber) {
+            // new employees get the highest document number unless one is reused, so this is usually an append
+            if (size > 0 && documents[size - 1] >= documentNumber) {
+                int position = Arrays.binarySearch(documents, 0, size, documentNumber);
+                if (position >= 0)
+                    return;
+                insert(-position - 1, documentNumber);
+                return;
+            }
+            insert(size, documentNumber);
+        }
+
+        private void insert(int position, int documentNumber) {
+            if (size == documents.length)
+                documents = Arrays.copyOf(documents, size * 2);
+            System.arraycopy(documents, position, documents, position + 1, size - position);
+            documents[position] = documentNumber;
+            size++;
+        }
+
+        boolean remove(int documentNumber) {
+            int position = Arrays.binarySearch(documents, 0, size, documentNumber);
+            if (position < 0)
+                return false;
+            System.arraycopy(documents, position + 1, documents, position, size - position - 1);
+            size--;
+            if (documents.length > MIN_CAPACITY && size <= documents.length / 4)
+                documents = Arrays.copyOf(documents, documents.length / 2);
+            return true;
+        }
+
+        boolean contains(int documentNumber) {
+            return Arrays.binarySearch(documents, 0, size, documentNumber) >= 0;
+        }
+    }
+
+    /**
+     * Employee id to document number, an open addressing table with linear probing over a {@code long[]} and an
+     * {@code int[]} as in {@link EmployeeStore}, without a boxed key and value per employee.
+     */
+    private static final class DocumentNumbers {
+
+        private static final int MIN_CAPACITY = 1024;
+
+        // id 0 is never generated by employees_seq, so it marks an empty slot
+        private static final long EMPTY = 0L;
+
+        private long[] ids = new long[MIN_CAPACITY];
+
+        private int[] numbers = new int[MIN_CAPACITY];
+
+        private int size;
+
+        /**
+         * @return the document number of the employee, -1 when it has none
+         */
+        int get(long id) {
+            int slot = find(id);
+            return slot < 0 ? -1 : numbers[slot];
+        }
+
+        void put(long id, int number) {
+            if (id <= 0)
+                throw new IllegalArgumentException("Employee id must be positive: " + id);
+            // size * 4 >= capacity * 3 keeps the load factor at most 0.75
+            if ((size + 1) * 4L > ids.length * 3L)
+                resize(ids.length * 2);
+            int slot = slotFor(id);
+            if (ids[slot] == EMPTY) {
+                ids[slot] = id;
+                size++;
+            }
+            numbers[slot] = number;
+        }
+
+        /**
+         * @return the document number the employee had, -1 when it had none
+         */
+        int remove(long id) {
+            int slot = find(id);
+            if (slot < 0)
+                return -1;
+            int number = numbers[slot];
+            // backward shift deletion, as in EmployeeStore
+            int mask = ids.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (ids[next] != EMPTY) {
+                int home = home(ids[next]);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    ids[hole] = ids[next];
+                    numbers[hole] = numbers[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            ids[hole] = EMPTY;
+            size--;
+            return number;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private int find(long id) {
+            if (id == EMPTY)
+                return -1;
+            int slot = slotFor(id);
+            return ids[slot] == id ? slot : -1;
+        }
+
+        private int slotFor(long id) {
+            int mask = ids.length - 1;
+            int slot = home(id);
+            while (ids[slot] != EMPTY && ids[slot] != id)
+                slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private int home(long id) {
+            return EmployeeStore.mix(id) & (ids.length - 1);
+        }
+
+        private void resize(int capacity) {
+            long[] oldIds = ids;
+            int[] oldNumbers = numbers;
+            ids = new long[capacity];
+            numbers = new int[capacity];
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] == EMPTY)
+                    continue;
+                int slot = slotFor(oldIds[i]);
+                ids[slot] = oldIds[i];
+                numbers[slot] = oldNumbers[i];
+            }
+        }
+    }
+
+    private record Document(long id, String firstName, String lastName, String email, long version,
+                            Instant createdAt, Instant updatedAt,
+                            String firstNameKey, String lastNameKey, String emailKey) {
+
+        static Document of(Employee employee) {
+            return new Document(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                    employee.getVersion(), employee.getCreatedAt(), employee.getUpdatedAt(),
+                    normalize(employee.getFirstName()), normalize(employee.getLastName()), normalize(employee.getEmail()));
+        }
+
+        private static String normalize(String value) {
+            return value == null ? "" : value.toLowerCase(Locale.ROOT);
+        }
+
+        Set<String> keys() {
+            Set<String> keys = new HashSet<>();
+            addKeys(keys, firstNameKey);
+            addKeys(keys, lastNameKey);
+            addKeys(keys, emailKey);
+            return keys;
+        }
+
+        /**
+         * @return sum of the best match of each term, 0 when a term does not match
+         */
+        int score(List<String> terms) {
+            int total = 0;
+            for (String term : terms) {
+                int score = Math.max(Math.max(score(firstNameKey, term), score(lastNameKey, term)) * 2,
+                        score(emailKey, term));
+                if (score == 0)
+                    return 0;
+                total += score;
+            }
+            return total;
+        }
+
+        private static int score(String value, String term) {
+            if (value.equals(term))
+                return 4;
+            if (value.startsWith(term))
+                return 3;
+            // one and two letter terms only match prefixes
+            return term.length() >= GRAM && value.contains(term) ? 1 : 0;
+        }
+
+        Employee toEmployee() {
+            return Employee.builder()
+                    .id(id)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(email)
+                    .version(version)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+
+    private record Match(Document document, int score) {
+
+        // lowest score first, then the highest id, so the oldest employees win ties
+        static final Comparator<Match> WORST_FIRST = Comparator.comparingInt(Match::score)
+                .thenComparing(Comparator.comparingLong((Match match) -> match.document().id()).reversed());
+    }
+}
@@ -0,0 +1,55 @@
+package net.javaguides.springboot.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ids of recently deleted employees, so an upsert that arrives after the delete, like a patch event or a page of the
+ * change feed read before the delete committed, does not bring the employee back. Ids are never reused, so a
+ * tombstone only has to outlive the events that were already on their way; it expires after the ttl.
+ * <p>
+ * Not thread safe, callers hold their own lock.
+ */
+class EmployeeTombstones {
+
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final Duration ttl;
+
+    // in the order of the deletes, so the expired ones are at the head
+    private final LinkedHashMap<Long, Instant> deletedAt = new LinkedHashMap<>();
+
+    EmployeeTombstones() {
+        this(DEFAULT_TTL);
+    }
+
+    EmployeeTombstones(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    void add(long id) {
+        Instant now = Instant.now();
+        expire(now);
+        deletedAt.remove(id);
+        deletedAt.put(id, now);
+    }
+
+    boolean contains(long id) {
+        expire(Instant.now());
+        return deletedAt.containsKey(id);
+    }
+
+    int size() {
+        return deletedAt.size();
+    }
+
+    private void expire(Instant now) {
+        Instant oldest = now.minus(ttl);
+        Iterator<Map.Entry<Long, Instant>> entries = deletedAt.entrySet().iterator();
+        while (entries.hasNext() && entries.next().getValue().isBefore(oldest))
+            entries.remove();
+    }
+}
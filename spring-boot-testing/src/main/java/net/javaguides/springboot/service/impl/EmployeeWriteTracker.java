@@ -0,0 +1,82 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.model.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The employee write transactions of this instance that have not completed yet, with the time they started writing.
+ * <p>
+ * updatedAt and the outbox createdAt are stamped while the transaction runs, before it commits, so the rows of an open
+ * transaction become visible later with timestamps from the past. Watermarks, of the changedSince sync and of the
+ * snapshot, are kept at {@link #settledUntil}, before the oldest open write, so a long transaction, like a batch
+ * create of thousands of employees, is not skipped.
+ * <p>
+ * Transactions of other instances are only covered by {@code employees.changes.sync-gap-timeout}, which must be longer
+ * than the time between the first write and the commit of any write transaction.
+ */
+@Component
+public class EmployeeWriteTracker {
+
+    private final Duration syncGapTimeout;
+
+    private final Map<TransactionSynchronization, Instant> openWrites = new ConcurrentHashMap<>();
+
+    @Autowired
+    public EmployeeWriteTracker(@Value("${employees.changes.sync-gap-timeout:30s}") Duration syncGapTimeout) {
+        this.syncGapTimeout = syncGapTimeout;
+    }
+
+    /**
+     * Record the current transaction as open until it completes. Must be called before the transaction stamps its
+     * first change, further calls in the same transaction keep the first start. Does nothing outside a transaction.
+     */
+    public void begin() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(this))
+            return;
+
+        TransactionSynchronization synchronization = new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                openWrites.remove(this);
+                TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeWriteTracker.this);
+            }
+        };
+        TransactionSynchronizationManager.bindResource(this, synchronization);
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        openWrites.put(synchronization, Employee.now());
+    }
+
+    /**
+     * Newest timestamp up to which every change has committed, as far as this instance can tell: the sync gap timeout
+     * before now, and before the oldest open write transaction. Take now before calling.
+     */
+    public Instant settledUntil(Instant now) {
+        Instant until = now.minus(syncGapTimeout);
+        Instant oldestOpenWrite = oldestOpenWrite();
+        if (oldestOpenWrite != null && !oldestOpenWrite.isAfter(until))
+            until = oldestOpenWrite.minus(1, ChronoUnit.MICROS);
+        return until;
+    }
+
+    /**
+     * @return when the oldest open write transaction started, null when there is none
+     */
+    public Instant oldestOpenWrite() {
+        Instant oldest = null;
+        for (Instant start : openWrites.values()) {
+            if (oldest == null || start.isBefore(oldest))
+                oldest = start;
+        }
+        return oldest;
+    }
+}
@@ -0,0 +1,220 @@
+package net.javaguides.springboot.service.impl;
+
+import net.javaguides.springboot.dto.CursorPage;
+import net.javaguides.springboot.dto.EmployeeSearchCriteria;
+import net.javaguides.springboot.dto.EmployeesVersion;
+import net.javaguides.springboot.dto.MultiGetResult;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.EmployeeChangedEvent;
+import net.javaguides.springboot.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Serves getEmployeeById, getAllEmployees and its version from an {@link EmployeeStore} instead of MySQL, for read
+ * mostly deployments. Enabled with {@code employees.in-memory.enabled=true}.
+ * <p>
+ * The store is loaded from the {@link EmployeeDataset} once the application is ready; until then reads go to the
+ * database. Writes go through {@link EmployeeServiceImpl} to MySQL, and the store applies the resulting
+ * {@link EmployeeChangedEvent}s once their transaction commits, so it never shows a change that was rolled back.
+ * The writes of other instances are republished by the {@link EmployeeChangeFollower}, and reach the store
+ * {@code employees.changes.sync-gap-timeout} after they were made.
+ * <p>
+ * Events can arrive out of order, a change of this instance may be followed by the older copy the follower read
+ * before it committed, so an employee is only replaced by a newer version, and a deleted one is not brought back by
+ * an upsert arriving late. Every other operation is delegated as is.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = InMemoryEmployeeService.ENABLED_PROPERTY, havingValue = "true")
+public class InMemoryEmployeeService implements EmployeeService {
+
+    public static final String ENABLED_PROPERTY = "employees.in-memory.enabled";
+
+    private final EmployeeServiceImpl delegate;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeDataset employeeDataset;
+
+    private final EmployeeStore store;
+
+    private final EmployeeTombstones tombstones = new EmployeeTombstones();
+
+    private volatile boolean loaded;
+
+    // ids deleted before the initial load is done, from the start, so a page or a snapshot row read before the delete
+    // does not bring them back
+    private Set<Long> deletedWhileLoading = new HashSet<>();
+
+    @Autowired
+    public InMemoryEmployeeService(EmployeeServiceImpl delegate, EmployeeRepository employeeRepository,
+                                   EmployeeDataset employeeDataset,
+                                   @Value("${employees.in-memory.expected-size:10000}") int expectedSize) {
+        this.delegate = delegate;
+        this.employeeRepository = employeeRepository;
+        this.employeeDataset = employeeDataset;
+        this.store = new EmployeeStore(expectedSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        employeeDataset.forEachPage(page -> {
+            synchronized (this) {
+                for (Employee employee : page) {
+                    // an employee changed since the page was read is already stored with a newer version
+                    if (!deletedWhileLoading.contains(employee.getId()))
+                        store.putIfNewer(employee);
+                }
+            }
+        });
+        synchronized (this) {
+            deletedWhileLoading = null;
+        }
+        loaded = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        // a patch only knows the changed fields, the committed row has the rest
+        Employee employee = event.type() == EmployeeChangedEvent.Type.DELETED ? null
+                : event.employee() != null ? event.employee()
+                : employeeRepository.findById(event.id()).orElse(null);
+        synchronized (this) {
+            if (employee == null) {
+                store.remove(event.id());
+                tombstones.add(event.id());
+                if (deletedWhileLoading != null)
+                    deletedWhileLoading.add(event.id());
+            } else if (!tombstones.contains(event.id())) {
+                store.putIfNewer(employee);
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Hand every stored employee to the consumer in id order, one lookup at a time, so writes are not blocked
+     * for the whole walk.
+     */
+    public void forEachEmployee(Consumer<Employee> consumer) {
+        for (long id : store.ids()) {
+            Employee employee = store.get(id);
+            // removed since the ids were taken
+            if (employee != null)
+                consumer.accept(employee);
+        }
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(long id) {
+        if (!loaded)
+            return delegate.getEmployeeById(id);
+        return Optional.ofNullable(store.get(id));
+    }
+
+    @Override
+    public List<Employee> getAllEmployees() {
+        if (!loaded)
+            return delegate.getAllEmployees();
+        return store.getAll();
+    }
+
+    @Override
+    public EmployeesVersion getEmployeesVersion() {
+        // from the store that serves the listing, so the ETag describes the body it is sent with
+        if (!loaded)
+            return delegate.getEmployeesVersion();
+        return store.version();
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        return delegate.saveEmployee(employee);
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees) {
+        return delegate.saveEmployees(employees);
+    }
+
+    @Override
+    public CursorPage<Employee> getEmployeesPage(String cursor, int limit) {
+        return delegate.getEmployeesPage(cursor, limit);
+    }
+
+    @Override
+    public CursorPage<Employee> searchEmployees(EmployeeSearchCriteria criteria, String cursor, int limit) {
+        return delegate.searchEmployees(criteria, cursor, limit);
+    }
+
+    @Override
+    public void exportEmployees(Consumer<Employee> consumer) {
+        delegate.exportEmployees(consumer);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return delegate.getEmployeeByEmail(email);
+    }
+
+    @Override
+    public List<Employee> suggestEmployees(String query, int limit) {
+        return delegate.suggestEmployees(query, limit);
+    }
+
+    @Override
+    public MultiGetResult getEmployeesByIds(List<Long> ids) {
+        return delegate.getEmployeesByIds(ids);
+    }
+
+    @Override
+    public Employee updateEmployee(Employee employee) {
+        return delegate.updateEmployee(employee);
+    }
+
+    @Override
+    public Optional<Employee> replaceEmployee(long id, Employee employee) {
+        return delegate.replaceEmployee(id, employee);
+    }
+
+    @Override
+    public boolean patchEmployee(long id, Employee changes) {
+        return delegate.patchEmployee(id, changes);
+    }
+
+    @Override
+    public void deleteEmployee(long id) {
+        delegate.deleteEmployee(id);
+    }
+
+    @Override
+    public int deleteEmployees(List<Long> ids) {
+        return delegate.deleteEmployees(ids);
+    }
+
+    @Override
+    public int deleteEmployeesByEmailDomain(String domain) {
+        return delegate.deleteEmployeesByEmailDomain(domain);
+    }
+}
@@ -0,0 +1,109 @@
+package net.javaguides.springboot.config;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class EmployeeOperationEventInterceptorTest {
+
+    private static final String EVENT_NAME = "net.javaguides.springboot.EmployeeOperation";
+
+    private EmployeeService target;
+
+    private EmployeeOperationEventInterceptor interceptor;
+
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup() {
+        target = mock(EmployeeService.class);
+        interceptor = new EmployeeOperationEventInterceptor("test-key".getBytes(StandardCharsets.UTF_8));
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(interceptor);
+        employeeService = (EmployeeService) proxyFactory.getProxy();
+    }
+
+    // Junit test for keyed email hashes
+    @DisplayName("Junit test for email hashes that depend on the key")
+    @Test
+    public void givenDifferentKeys_whenEmailHash_thenDifferentHashes() {
+
+        //given - precondition or setup
+        EmployeeOperationEventInterceptor sameKey = new EmployeeOperationEventInterceptor("test-key".getBytes(StandardCharsets.UTF_8));
+        EmployeeOperationEventInterceptor otherKey = new EmployeeOperationEventInterceptor();
+
+        //when - action or the behavior that we are goint to test
+        long hash = interceptor.emailHash("ramesh@gmail.com");
+
+        //then - verify the output
+        assertThat(sameKey.emailHash("ramesh@gmail.com")).isEqualTo(hash);
+        assertThat(otherKey.emailHash("ramesh@gmail.com")).isNotEqualTo(hash);
+        assertThat(interceptor.emailHash("sebastian@hotmail.com")).isNotEqualTo(hash);
+    }
+
+    // Junit test for recording employee operation events
+    @DisplayName("Junit test for recording EmployeeService calls as flight recorder events")
+    @Test
+    public void givenRecording_whenServiceCalled_thenEventsRecorded(@TempDir Path directory) throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@gmail.com")
+                .build();
+        given(target.getEmployeeById(1L)).willReturn(Optional.of(employee));
+        given(target.getEmployeeByEmail("ramesh@gmail.com")).willReturn(Optional.of(employee));
+        given(target.suggestEmployees("ramesh", 10)).willReturn(List.of(employee));
+        given(target.deleteEmployeesByEmailDomain("gmail.com")).willReturn(3);
+        Path file = directory.resolve("employees.jfr");
+
+        //when - action or the behavior that we are goint to test
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME);
+            recording.start();
+            employeeService.getEmployeeById(1L);
+            employeeService.getEmployeeByEmail("ramesh@gmail.com");
+            employeeService.suggestEmployees("ramesh", 10);
+            employeeService.deleteEmployeesByEmailDomain("gmail.com");
+            recording.stop();
+            recording.dump(file);
+        }
+
+        //then - verify the output
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(EVENT_NAME))
+                .toList();
+        assertThat(events).hasSize(4);
+        assertThat(events.get(0).getString("operation")).isEqualTo("getEmployeeById");
+        assertThat(events.get(0).getLong("employeeId")).isEqualTo(1L);
+        assertThat(events.get(0).getInt("rows")).isEqualTo(1);
+        assertThat(events.get(1).getString("operation")).isEqualTo("getEmployeeByEmail");
+        assertThat(events.get(1).getLong("emailHash")).isEqualTo(interceptor.emailHash("ramesh@gmail.com"))
+                .isNotEqualTo("ramesh@gmail.com".hashCode()).isNotZero();
+        assertThat(events.get(2).getString("operation")).isEqualTo("suggestEmployees");
+        assertThat(events.get(2).getLong("emailHash")).isZero();
+        assertThat(events.get(2).getString("emailDomain")).isNull();
+        assertThat(events.get(3).getString("operation")).isEqualTo("deleteEmployeesByEmailDomain");
+        assertThat(events.get(3).getString("emailDomain")).isEqualTo("gmail.com");
+        assertThat(events.get(3).getLong("emailHash")).isZero();
+        assertThat(events.get(3).getInt("rows")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,74 @@
+package net.javaguides.springboot.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSequenceInitializerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private EmployeeSequenceInitializer sequenceInitializer;
+
+    // Junit test for upgrading a MySQL database with AUTO_INCREMENT ids
+    @DisplayName("Junit test for moving employees_seq past the highest employee id on MySQL")
+    @Test
+    public void givenExistingEmployees_whenAfterPropertiesSet_thenSequenceRaised() {
+
+        //given - precondition or setup
+        given(jdbcTemplate.execute(any(ConnectionCallback.class))).willReturn("MySQL");
+        given(jdbcTemplate.queryForObject(EmployeeSequenceInitializer.SELECT_MAX_ID, Long.class)).willReturn(1000L);
+        given(jdbcTemplate.update(EmployeeSequenceInitializer.RAISE_NEXT_VALUE, 1051L, 1051L)).willReturn(1);
+
+        //when - action or the behavior that we are goint to test
+        sequenceInitializer.afterPropertiesSet();
+
+        //then - verify the output, the pooled optimizer hands out 1002 to 1051 first
+        verify(jdbcTemplate).update(EmployeeSequenceInitializer.RAISE_NEXT_VALUE, 1051L, 1051L);
+    }
+
+    // Junit test for a new database
+    @DisplayName("Junit test for leaving employees_seq alone when there are no employees")
+    @Test
+    public void givenNoEmployees_whenAfterPropertiesSet_thenSequenceUntouched() {
+
+        //given - precondition or setup
+        given(jdbcTemplate.execute(any(ConnectionCallback.class))).willReturn("MySQL");
+        given(jdbcTemplate.queryForObject(EmployeeSequenceInitializer.SELECT_MAX_ID, Long.class)).willReturn(null);
+
+        //when - action or the behavior that we are goint to test
+        sequenceInitializer.afterPropertiesSet();
+
+        //then - verify the output
+        verify(jdbcTemplate, never()).update(anyString(), anyLong(), anyLong());
+    }
+
+    // Junit test for databases with real sequences
+    @DisplayName("Junit test for leaving the sequence alone on databases with sequences")
+    @Test
+    public void givenH2_whenAfterPropertiesSet_thenNothingQueried() {
+
+        //given - precondition or setup
+        given(jdbcTemplate.execute(any(ConnectionCallback.class))).willReturn("H2");
+
+        //when - action or the behavior that we are goint to test
+        sequenceInitializer.afterPropertiesSet();
+
+        //then - verify the output
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class));
+    }
+}
@@ -0,0 +1,61 @@
+package net.javaguides.springboot.config;
+
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.InMemoryEmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeServicePointcutTest {
+
+    // Junit test for the default EmployeeService pointcut
+    @DisplayName("Junit test for matching EmployeeServiceImpl without the in memory store")
+    @Test
+    public void givenInMemoryDisabled_whenMatching_thenEmployeeServiceImplOnly() {
+
+        //given - precondition or setup
+        EmployeeServicePointcut pointcut = new EmployeeServicePointcut(new MockEnvironment());
+
+        //when - action or the behavior that we are goint to test
+        boolean impl = AopUtils.canApply(pointcut, EmployeeServiceImpl.class);
+        boolean getById = pointcut.matches(method(EmployeeServiceImpl.class, "getEmployeeById", long.class), EmployeeServiceImpl.class);
+        boolean collapsed = pointcut.matches(method(EmployeeServiceImpl.class, "getCollapsedIdLookups"), EmployeeServiceImpl.class);
+
+        //then - verify the output
+        assertThat(impl).isTrue();
+        assertThat(getById).isTrue();
+        assertThat(collapsed).isFalse();
+    }
+
+    // Junit test for the EmployeeService pointcut with the in memory store
+    @DisplayName("Junit test for matching only InMemoryEmployeeService with the in memory store")
+    @Test
+    public void givenInMemoryEnabled_whenMatching_thenDelegateIsNotMatched() {
+
+        //given - precondition or setup
+        EmployeeServicePointcut pointcut = new EmployeeServicePointcut(
+                new MockEnvironment().withProperty(InMemoryEmployeeService.ENABLED_PROPERTY, "true"));
+
+        //when - action or the behavior that we are goint to test
+        boolean inMemory = AopUtils.canApply(pointcut, InMemoryEmployeeService.class);
+        boolean delegate = AopUtils.canApply(pointcut, EmployeeServiceImpl.class);
+        boolean forEach = pointcut.matches(method(InMemoryEmployeeService.class, "forEachEmployee", Consumer.class),
+                InMemoryEmployeeService.class);
+
+        //then - verify the output
+        assertThat(inMemory).isTrue();
+        assertThat(delegate).isFalse();
+        assertThat(forEach).isFalse();
+    }
+
+    private static Method method(Class<?> type, String name, Class<?>... parameterTypes) {
+        return ReflectionUtils.findMethod(type, name, parameterTypes);
+    }
+}
@@ -0,0 +1,63 @@
+package net.javaguides.springboot.config;
+
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecorderEndpointTest {
+
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+
+    // Junit test for starting and stopping a recording
+    @DisplayName("Junit test for starting a recording and streaming back the jfr file")
+    @Test
+    public void givenRunningRecording_whenStop_thenJfrFileReturned(@TempDir Path directory) throws Exception {
+
+        //given - precondition or setup
+        WebEndpointResponse<?> started = endpoint.start(null, Duration.ofMinutes(1), 10_000_000L, null);
+        assertThat(started.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(endpoint.status()).containsEntry("state", RecordingState.RUNNING);
+
+        //when - action or the behavior that we are goint to test
+        WebEndpointResponse<Resource> stopped = endpoint.stop();
+
+        //then - verify the output
+        assertThat(stopped.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        Path copy = directory.resolve("copy.jfr");
+        try (InputStream in = stopped.getBody().getInputStream()) {
+            Files.copy(in, copy);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(copy);
+        assertThat(events).isNotEmpty();
+        assertThat(events).extracting(event -> event.getEventType().getName())
+                .doesNotContainAnyElementsOf(FlightRecorderEndpoint.SENSITIVE_EVENTS);
+        assertThat(endpoint.status()).containsEntry("state", "NONE");
+    }
+
+    // Junit test for stopping without a recording
+    @DisplayName("Junit test for stopping when no recording was started")
+    @Test
+    public void givenNoRecording_whenStop_thenNotFound() throws Exception {
+
+        //given - precondition or setup
+
+        //when - action or the behavior that we are goint to test
+        WebEndpointResponse<Resource> stopped = endpoint.stop();
+
+        //then - verify the output
+        assertThat(stopped.getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
@@ -0,0 +1,67 @@
+package net.javaguides.springboot.config;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerTimingFilterTest {
+
+    private final ServerTimingFilter filter = new ServerTimingFilter("X-Server-Timing", 0);
+
+    // Junit test for requesting the Server-Timing header
+    @DisplayName("Junit test for Server-Timing header on requests asking for it")
+    @Test
+    public void givenTimingRequestHeader_whenFilter_thenServerTimingHeader() throws Exception {
+
+        //given - precondition or setup
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/1");
+        request.addHeader("X-Server-Timing", "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when - action or the behavior that we are goint to test
+        filter.doFilter(request, response, new MockFilterChain(new EmployeeServlet()));
+
+        //then - verify the output
+        assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER))
+                .contains("service;desc=\"Service logic\";dur=2.000")
+                .contains("total;");
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    // Junit test for requests that are not timed
+    @DisplayName("Junit test for no Server-Timing header on requests not sampled")
+    @Test
+    public void givenNoTimingRequestHeader_whenFilter_thenNoServerTimingHeader() throws Exception {
+
+        //given - precondition or setup
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when - action or the behavior that we are goint to test
+        filter.doFilter(request, response, new MockFilterChain(new EmployeeServlet()));
+
+        //then - verify the output
+        assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    private static class EmployeeServlet extends HttpServlet {
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            ServerTiming timing = ServerTiming.current();
+            if (timing != null)
+                timing.add(ServerTiming.Phase.SERVICE, 2_000_000);
+            response.getWriter().write("{\"id\":1}");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.javaguides.springboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
+import net.javaguides.springboot.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+
+public class TimedInvocationInterceptorTest {
+
+    private MeterRegistry meterRegistry;
+
+    private EmployeeService target;
+
+    private EmployeeService employeeService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = mock(EmployeeService.class);
+
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(new TimedInvocationInterceptor(() -> meterRegistry, "service", "EmployeeService"));
+        employeeService = (EmployeeService) proxyFactory.getProxy();
+    }
+
+    // Junit test for timing successful invocations
+    @DisplayName("Junit test for timing successful invocations per method")
+    @Test
+    public void givenProxiedService_whenMethodsInvoked_thenTimerPerMethod() {
+
+        //given - precondition or setup
+
+        //when - action or the behavior that we are goint to test
+        employeeService.getEmployeeById(1L);
+        employeeService.getEmployeeById(2L);
+        employeeService.getAllEmployees();
+
+        //then - verify the output
+        Timer getById = meterRegistry.get(TimedInvocationInterceptor.METRIC_NAME)
+                .tags("layer", "service", "class", "EmployeeService", "method", "getEmployeeById", "outcome", "success")
+                .timer();
+        assertThat(getById.count()).isEqualTo(2);
+        assertThat(meterRegistry.get(TimedInvocationInterceptor.METRIC_NAME)
+                .tags("method", "getAllEmployees", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    // Junit test for timing failed invocations
+    @DisplayName("Junit test for timing failed invocations with error outcome")
+    @Test
+    public void givenMethodThrows_whenInvoked_thenErrorTimerRecorded() {
+
+        //given - precondition or setup
+        willThrow(new ResourceNotFoundException("Employee not found")).given(target).deleteEmployee(1L);
+
+        //when - action or the behavior that we are goint to test
+        assertThatThrownBy(() -> employeeService.deleteEmployee(1L)).isInstanceOf(ResourceNotFoundException.class);
+
+        //then - verify the output
+        assertThat(meterRegistry.get(TimedInvocationInterceptor.METRIC_NAME)
+                .tags("method", "deleteEmployee", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TimedInvocationInterceptor.METRIC_NAME)
+                .tags("method", "deleteEmployee", "outcome", "success")
+                .timer().count()).isZero();
+    }
+}
@@ -1,7 +1,16 @@
 package net.javaguides.springboot.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.springboot.dto.CursorPage;
+import net.javaguides.springboot.dto.EmployeeChangesPage;
+import net.javaguides.springboot.dto.EmployeeSearchCriteria;
+import net.javaguides.springboot.dto.EmployeesVersion;
+import net.javaguides.springboot.dto.MultiGetResult;
+import net.javaguides.springboot.exception.BadRequestException;
+import net.javaguides.springboot.exception.ChangesExpiredException;
+import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.EmployeeChangeFeed;
 import net.javaguides.springboot.service.EmployeeService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,18 +18,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +57,9 @@ public class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -67,6 +93,39 @@ public class EmployeeControllerTest {
                         is(employee.getEmail())));
     }
 
+    // Junit test for createEmployees batch method
+    @DisplayName("Junit test for createEmployees batch method")
+    @Test
+    public void givenListOfEmployees_whenCreateEmployees_thenReturnSavedEmployees() throws Exception {
+
+        //given - precondition or setup
+        List<Employee> listOfEmployees = new ArrayList<>();
+        listOfEmployees.add(Employee.builder()
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build());
+        listOfEmployees.add(Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build());
+
+        given(employeeService.saveEmployees(any()))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployees)));
+
+        //then - verify the result or output using assert statements
+        response.andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size()", is(listOfEmployees.size())))
+                .andExpect(jsonPath("$[1].email", is("setoba1192@hotmail.com")));
+    }
+
     // Junit test for getAllEmployees
     @DisplayName("Junit test for getAllEmployees")
     @Test
@@ -85,6 +144,8 @@ public class EmployeeControllerTest {
                 .email("setoba1192@hotmail.com")
                 .build());
 
+        given(employeeService.getEmployeesVersion())
+                .willReturn(new EmployeesVersion(2L, Instant.parse("2026-10-16T10:00:00.000001Z")));
         given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
 
         //when - action or the behavior that we are goint to test
@@ -93,9 +154,317 @@ public class EmployeeControllerTest {
         //then - verify the output
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(header().string("ETag", "\"2-1792144800000001\""))
                 .andExpect(jsonPath("$.size()", is(listOfEmployees.size())));
     }
 
+    // Junit test for a conditional getAllEmployees
+    @DisplayName("Junit test for getAllEmployees with the current ETag in If-None-Match")
+    @Test
+    public void givenCurrentETag_whenGetAllEmployees_thenNotModifiedWithoutLoading() throws Exception {
+
+        //given - precondition or setup
+        given(employeeService.getEmployeesVersion())
+                .willReturn(new EmployeesVersion(2L, Instant.parse("2026-10-16T10:00:00.000001Z")));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .header("If-None-Match", "\"1-1792144700000000\", W/\"2-1792144800000001\""));
+
+        //then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"2-1792144800000001\""))
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    // Junit test for keyset paginated getEmployeesPage
+    @DisplayName("Junit test for getEmployeesPage REST API")
+    @Test
+    public void givenCursorAndLimit_whenGetEmployeesPage_thenReturnPage() throws Exception {
+
+        //given - precondition or setup
+        List<Employee> listOfEmployees = List.of(Employee.builder()
+                .id(3L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build());
+
+        given(employeeService.getEmployeesPage("Mg", 1))
+                .willReturn(new CursorPage<>(listOfEmployees, "Mw"));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("cursor", "Mg")
+                .param("limit", "1"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].id", is(3)))
+                .andExpect(jsonPath("$.next", is("Mw")));
+    }
+
+    // Junit test for the last page of getEmployeesPage
+    @DisplayName("Junit test for getEmployeesPage REST API last page")
+    @Test
+    public void givenLimitOnly_whenGetEmployeesPage_thenReturnLastPage() throws Exception {
+
+        //given - precondition or setup
+        given(employeeService.getEmployeesPage(null, 50))
+                .willReturn(new CursorPage<>(new ArrayList<>(), null));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("limit", "50"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.items.size()", is(0)))
+                .andExpect(jsonPath("$.next", is(nullValue())));
+    }
+
+    // Junit test for the changedSince sync
+    @DisplayName("Junit test for getEmployeesChangedSince REST API")
+    @Test
+    public void givenChangedSinceAndLimit_whenGetEmployees_thenReturnChangesPage() throws Exception {
+
+        //given - precondition or setup
+        Instant changedSince = Instant.parse("2026-10-16T00:00:00Z");
+        Employee employee = Employee.builder()
+                .id(3L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .version(2L)
+                .updatedAt(Instant.parse("2026-10-16T10:00:00Z"))
+                .build();
+        given(employeeChangeFeed.getChangesSince(changedSince, null, 50))
+                .willReturn(new EmployeeChangesPage(List.of(employee),
+                        List.of(new EmployeeChangesPage.Tombstone(5L, Instant.parse("2026-10-16T11:00:00Z"))),
+                        null, Instant.parse("2026-10-17T00:00:00Z")));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("changedSince", "2026-10-16T00:00:00Z")
+                .param("limit", "50"));
+
+        //then - verify the output, limit alone would select the keyset listing
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.employees[0].id", is(3)))
+                .andExpect(jsonPath("$.employees[0].version", is(2)))
+                .andExpect(jsonPath("$.deleted[0].id", is(5)))
+                .andExpect(jsonPath("$.next", is(nullValue())))
+                .andExpect(jsonPath("$.watermark", is("2026-10-17T00:00:00Z")));
+    }
+
+    // Junit test for a changedSince older than the retention
+    @DisplayName("Junit test for getEmployeesChangedSince REST API with an expired watermark")
+    @Test
+    public void givenExpiredChangedSince_whenGetEmployees_thenReturn410() throws Exception {
+
+        //given - precondition or setup
+        given(employeeChangeFeed.getChangesSince(any(Instant.class), isNull(), eq(0)))
+                .willThrow(new ChangesExpiredException("Changes are no longer retained"));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("changedSince", "2020-01-01T00:00:00Z"));
+
+        //then - verify the output
+        response.andExpect(status().isGone())
+                .andDo(print());
+    }
+
+    // Junit test for searchEmployees REST API
+    @DisplayName("Junit test for searchEmployees REST API")
+    @Test
+    public void givenLastNamePrefix_whenSearchEmployees_thenReturnPage() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+        given(employeeService.searchEmployees(argThat(criteria -> "Ro*".equals(criteria.getLastName())
+                        && "Joan".equals(criteria.getFirstName())), isNull(), eq(50)))
+                .willReturn(new CursorPage<>(List.of(employee), null));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("lastName", "Ro*")
+                .param("firstName", "Joan")
+                .param("limit", "50"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.items.size()", is(1)))
+                .andExpect(jsonPath("$.items[0].lastName", is("Roa")))
+                .andExpect(jsonPath("$.next", is(nullValue())));
+    }
+
+    // Junit test for searchEmployees REST API with filters that cannot use an index
+    @DisplayName("Junit test for searchEmployees REST API rejecting unindexed filters")
+    @Test
+    public void givenFirstNameOnly_whenSearchEmployees_thenReturn400() throws Exception {
+
+        //given - precondition or setup
+        given(employeeService.searchEmployees(any(EmployeeSearchCriteria.class), isNull(), eq(0)))
+                .willThrow(new BadRequestException("firstName can only be searched together with lastName"));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search").param("firstName", "Joan"));
+
+        //then - verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+    }
+
+    // Junit test for suggestEmployees REST API
+    @DisplayName("Junit test for suggestEmployees REST API")
+    @Test
+    public void givenQuery_whenSuggestEmployees_thenReturnSuggestions() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+        given(employeeService.suggestEmployees("joan ro", 5)).willReturn(List.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees/suggest")
+                .param("q", "joan ro")
+                .param("limit", "5"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].lastName", is("Roa")));
+    }
+
+    // Junit test for streamChanges REST API
+    @DisplayName("Junit test for streamChanges REST API resuming from Last-Event-ID")
+    @Test
+    public void givenLastEventId_whenStreamChanges_thenSubscribeAfterIt() throws Exception {
+
+        //given - precondition or setup
+        given(employeeChangeFeed.subscribe(41L)).willReturn(new SseEmitter());
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", "41"));
+
+        //then - verify the output
+        response.andExpect(request().asyncStarted())
+                .andDo(print());
+        verify(employeeChangeFeed).subscribe(41L);
+    }
+
+    // Junit test for getEmployeeByEmail REST API
+    @DisplayName("Junit test for getEmployeeByEmail REST API")
+    @Test
+    public void givenEmployeeEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+
+        given(employeeService.getEmployeeByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("email", employee.getEmail()));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    // Junit test for getEmployeesByIds multi-get REST API
+    @DisplayName("Junit test for getEmployeesByIds REST API")
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnFoundAndMissing() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+
+        given(employeeService.getEmployeesByIds(List.of(1L, 7L)))
+                .willReturn(new MultiGetResult(List.of(employee), List.of(7L)));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees").param("ids", "1,7"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.employees.size()", is(1)))
+                .andExpect(jsonPath("$.employees[0].email", is(employee.getEmail())))
+                .andExpect(jsonPath("$.notFound[0]", is(7)));
+    }
+
+    // Junit test for exportEmployees streaming REST API
+    @DisplayName("Junit test for exportEmployees REST API")
+    @Test
+    public void givenEmployees_whenExportEmployees_thenReturnNdjson() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee1);
+            return null;
+        }).given(employeeService).exportEmployees(any());
+
+        //when - action or the behavior that we are goint to test
+        MvcResult result = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ResultActions response = mockMvc.perform(asyncDispatch(result));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(employee) + "\n"
+                        + objectMapper.writeValueAsString(employee1) + "\n"));
+    }
+
     // positive scenario -valid employee id
     // Junit test for getEmployeeById Rest API
     @DisplayName("Junit test for getEmployeeById Rest API")
@@ -120,12 +489,40 @@ public class EmployeeControllerTest {
         //then - verify the output
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(header().string("ETag", "\"0\""))
                 .andExpect(jsonPath("$.id", is(notNullValue())))
                 .andExpect(jsonPath("$.firstName", is(employee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(employee.getLastName())))
                 .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    // Junit test for a conditional getEmployeeById
+    @DisplayName("Junit test for getEmployeeById Rest API with the current ETag in If-None-Match")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenNotModified() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .version(3L)
+                .build();
+
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", 1L)
+                .header("If-None-Match", "\"3\""));
+
+        //then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
     // negative scenario -valid employee id
     // Junit test for getEmployeeById Rest API that return not found
     @DisplayName("Junit test for getEmployeeById Rest API that return not found")
@@ -171,20 +568,22 @@ public class EmployeeControllerTest {
                 .email("setoba1192@hotmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
-        given(employeeService.updateEmployee(any(Employee.class))).willReturn(updatedEmployee);
+        given(employeeService.replaceEmployee(eq(employeeId), any(Employee.class))).willReturn(Optional.of(updatedEmployee));
 
         //when - action or the behavior that we are goint to test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedEmployee)));
 
-        //then - verify the output
+        //then - verify the output, without If-Match the cached employee and its version are not used
         response.andExpect(status().isOk())
                 .andDo(print())
                 .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())))
                 .andExpect(jsonPath("$.lastName", is(updatedEmployee.getLastName())))
                 .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
+        verify(employeeService, never()).getEmployeeById(employeeId);
+        verify(employeeService, never()).updateEmployee(any(Employee.class));
+        assertThat(savedEmployee.getFirstName()).isEqualTo("Joan");
     }
 
     @DisplayName("Junit test for updateEmployee when employee not found REST API")
@@ -205,14 +604,154 @@ public class EmployeeControllerTest {
                 .email("setoba1192@hotmail.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
+        given(employeeService.replaceEmployee(eq(employeeId), any(Employee.class))).willReturn(Optional.empty());
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    // Junit test for updateEmployee with a stale employee
+    @DisplayName("Junit test for updateEmployee REST API when the employee changed concurrently")
+    @Test
+    public void givenConcurrentUpdate_whenUpdateEmployee_thenReturnConflict() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Joan Sebastian")
+                .lastName("Roa Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        given(employeeService.replaceEmployee(eq(employeeId), any(Employee.class)))
+                .willThrow(new ObjectOptimisticLockingFailureException(Employee.class, employeeId));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //then - verify the output
+        response.andExpect(status().isConflict())
+                .andDo(print());
+    }
+
+    // Junit test for updateEmployee with a stale If-Match
+    @DisplayName("Junit test for updateEmployee REST API with an If-Match of an older version")
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenPreconditionFailed() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee savedEmployee = Employee.builder()
+                .id(employeeId)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .version(4L)
+                .build();
+
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Joan Sebastian")
+                .lastName("Roa Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        //then - verify the output
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+        verify(employeeService, never()).updateEmployee(any(Employee.class));
+    }
+
+    // Junit test for updateEmployee with the current If-Match
+    @DisplayName("Junit test for updateEmployee REST API with an If-Match of the current version")
+    @Test
+    public void givenCurrentIfMatch_whenUpdateEmployee_thenUpdateWithThatVersion() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        Employee savedEmployee = Employee.builder()
+                .id(employeeId)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .version(4L)
+                .build();
+
+        Employee updatedEmployee = Employee.builder()
+                .id(employeeId)
+                .firstName("Joan Sebastian")
+                .lastName("Roa Sanchez")
+                .email("setoba1192@hotmail.com")
+                .version(5L)
+                .build();
+
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
         given(employeeService.updateEmployee(any(Employee.class))).willReturn(updatedEmployee);
 
         //when - action or the behavior that we are goint to test
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .header("If-Match", "\"4\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedEmployee)));
 
+        //then - verify the output, the version read is sent along so the database rejects a concurrent update
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string("ETag", "\"5\""))
+                .andExpect(jsonPath("$.firstName", is(updatedEmployee.getFirstName())));
+        verify(employeeService).updateEmployee(argThat(employee -> employee.getVersion() == 4L
+                && employee.getFirstName().equals("Joan Sebastian")));
+        // the cached employee is left untouched
+        assertThat(savedEmployee.getFirstName()).isEqualTo("Joan");
+    }
+
+    // Junit test for patchEmployee REST API
+    @DisplayName("Junit test for patchEmployee REST API")
+    @Test
+    public void givenChangedFields_whenPatchEmployee_thenReturnNoContent() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.patchEmployee(eq(employeeId), any(Employee.class))).willReturn(true);
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"setoba1192@hotmail.com\"}"));
+
+        //then - verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+    }
+
+    @DisplayName("Junit test for patchEmployee when employee not found REST API")
+    @Test
+    public void givenNotFoundEmployee_whenPatchEmployee_thenReturnNotFound() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.patchEmployee(eq(employeeId), any(Employee.class))).willReturn(false);
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Sebas\"}"));
+
         //then - verify the output
         response.andExpect(status().isNotFound())
                 .andDo(print());
@@ -236,4 +775,59 @@ public class EmployeeControllerTest {
                 .andExpect(content().string("Employee deleted successfully"));
 
     }
+
+    // Junit test for deleteEmployee REST API when employee not found
+    @DisplayName("Junit test for deleteEmployee when employee not found REST API")
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404Status() throws Exception {
+
+        //given - precondition or setup
+        long employeeId = 1L;
+        willThrow(new ResourceNotFoundException("Employee not found with id: 1"))
+                .given(employeeService).deleteEmployee(employeeId);
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+
+        //then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    // Junit test for deleteEmployees bulk REST API
+    @DisplayName("Junit test for deleteEmployees bulk REST API")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+
+        //given - precondition or setup
+        List<Long> employeeIds = List.of(1L, 2L, 3L);
+        given(employeeService.deleteEmployees(employeeIds)).willReturn(3);
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeIds)));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().string("3 employees deleted successfully"));
+    }
+
+    // Junit test for deleteEmployeesByEmailDomain REST API
+    @DisplayName("Junit test for deleteEmployeesByEmailDomain REST API")
+    @Test
+    public void givenEmailDomain_whenDeleteEmployeesByEmailDomain_thenReturnDeletedCount() throws Exception {
+
+        //given - precondition or setup
+        given(employeeService.deleteEmployeesByEmailDomain("gmail.com")).willReturn(2);
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(delete("/api/employees").param("emailDomain", "gmail.com"));
+
+        //then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().string("2 employees deleted successfully"));
+    }
 }
@@ -1,8 +1,12 @@
 package net.javaguides.springboot.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.support.SqlStatementCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,20 +14,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = SqlStatementCounter.ENABLED)
 @Transactional
 @AutoConfigureMockMvc
 public class EmployeeControllerITTest {
@@ -37,6 +44,12 @@ public class EmployeeControllerITTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setup() {
         employeeRepository.deleteAll();
@@ -236,4 +249,158 @@ public class EmployeeControllerITTest {
                 .andExpect(content().string("Employee deleted successfully"));
 
     }
+
+    // Junit integration test for the statements run by createEmployee
+    @DisplayName("Junit integration test for createEmployee statement budget")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenOneInsertAndNoSelect() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+        SqlStatementCounter.reset();
+
+        //when - action or the behavior that we are goint to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        //then - verify the output
+        response.andExpect(status().isCreated());
+        assertThat(SqlStatementCounter.counts()).isEqualTo(Map.of(SqlStatementCounter.Type.INSERT, 1));
+    }
+
+    // Junit integration test for the statements run by getEmployeeById
+    @DisplayName("Junit integration test for getEmployeeById statement budget")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeByIdTwice_thenOneSelect() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+        SqlStatementCounter.reset();
+
+        //when - action or the behavior that we are goint to test
+        mockMvc.perform(get("/api/employees/{id}", employee.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/employees/{id}", employee.getId())).andExpect(status().isOk());
+
+        //then - verify the output, the second request is served by the cache
+        assertThat(SqlStatementCounter.counts()).isEqualTo(Map.of(SqlStatementCounter.Type.SELECT, 1));
+    }
+
+    // Junit integration test for the statements run by deleteEmployee
+    @DisplayName("Junit integration test for deleteEmployee statement budget")
+    @Test
+    public void givenEmployeeId_whenDeleteEmployee_thenOneDeleteAndNoSelect() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+        SqlStatementCounter.reset();
+
+        //when - action or the behavior that we are goint to test
+        mockMvc.perform(delete("/api/employees/{id}", employee.getId())).andExpect(status().isOk());
+
+        //then - verify the output
+        assertThat(SqlStatementCounter.counts()).isEqualTo(Map.of(SqlStatementCounter.Type.DELETE, 1));
+    }
+
+    // Junit integration test for the outbox rows written by the employee mutations
+    @DisplayName("Junit integration test for the employee changes outbox")
+    @Test
+    public void givenEmployeeMutations_whenCommitted_thenOutboxRowsInOrder() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Roa")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        //when - action or the behavior that we are goint to test
+        String created = mockMvc.perform(post("/api/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long employeeId = objectMapper.readValue(created, Employee.class).getId();
+        mockMvc.perform(put("/api/employees/{id}", employeeId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEmployee)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/employees/{id}", employeeId)).andExpect(status().isOk());
+        // the outbox rows are written when the transaction commits
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        //then - verify the output
+        List<EmployeeChange> changes = employeeChangeRepository.findAll().stream()
+                .filter(change -> change.getEmployeeId() == employeeId)
+                .sorted((first, second) -> Long.compare(first.getId(), second.getId()))
+                .toList();
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(
+                EmployeeChange.Type.CREATED, EmployeeChange.Type.UPDATED, EmployeeChange.Type.DELETED);
+        assertThat(changes.get(1).getPayload()).contains("\"firstName\":\"Sebastian\"");
+        assertThat(changes.get(2).getPayload()).contains("\"employee\":null");
+    }
+
+    // Junit integration test for the outbox row of a conditional update
+    @DisplayName("Junit integration test for the outbox row of an update with If-Match")
+    @Test
+    public void givenIfMatch_whenUpdateEmployee_thenOutboxRowHasNewVersion() throws Exception {
+
+        //given - precondition or setup
+        Employee employee = employeeRepository.saveAndFlush(Employee.builder()
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build());
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Roa")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        //when - action or the behavior that we are goint to test
+        mockMvc.perform(put("/api/employees/{id}", employee.getId())
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedEmployee)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+        // the outbox rows are written when the transaction commits
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        //then - verify the output, the payload is the row as committed, not the entity before its flush
+        Employee committed = employeeRepository.findById(employee.getId()).orElseThrow();
+        List<EmployeeChange> changes = employeeChangeRepository.findAll().stream()
+                .filter(change -> change.getEmployeeId() == employee.getId())
+                .filter(change -> change.getType() == EmployeeChange.Type.UPDATED)
+                .toList();
+        assertThat(changes).hasSize(1);
+        assertThat(changes.get(0).getPayload())
+                .contains("\"firstName\":\"Sebastian\"")
+                .contains("\"version\":1")
+                .contains("\"updatedAt\":" + objectMapper.writeValueAsString(committed.getUpdatedAt()));
+        assertThat(committed.getVersion()).isEqualTo(1L);
+    }
 }
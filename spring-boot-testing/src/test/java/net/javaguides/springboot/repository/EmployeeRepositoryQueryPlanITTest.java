@@ -0,0 +1,225 @@
+package net.javaguides.springboot.repository;
+
+import net.javaguides.springboot.integration.AbstractionBaseTest;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.support.EmployeeBulkLoader;
+import net.javaguides.springboot.support.EmployeeDataGenerator;
+import net.javaguides.springboot.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the MySQL container for the statements of every EmployeeRepository query and fails on full table
+ * scans and filesorts. Generated rows are bulk loaded outside the test transaction so the optimizer sees realistic
+ * statistics.
+ * <p>
+ * findAll, streamAll and the email domain lookup read the whole table by design; for those only a filesort fails.
+ */
+@DataJpaTest(properties = SqlStatementCounter.ENABLED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class EmployeeRepositoryQueryPlanITTest extends AbstractionBaseTest {
+
+    private static final int SEEDED_EMPLOYEES = 100_000;
+
+    private final EmployeeDataGenerator generator = new EmployeeDataGenerator(17);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private EmployeeBulkLoader.Loaded seeded;
+
+    @BeforeAll
+    public void seed() {
+        seeded = new EmployeeBulkLoader(dataSource).load(generator.employees(SEEDED_EMPLOYEES));
+        jdbcTemplate.execute("analyze table employees");
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        jdbcTemplate.update("delete from employees where id between ? and ?", seeded.firstId(), seeded.lastId());
+    }
+
+    // Junit test for the plans of the lookups by key
+    @DisplayName("Junit test for findByEmail, findById and findAllById using an index")
+    @Test
+    public void givenSeededEmployees_whenExplainKeyLookups_thenNoFullScanOrFilesort() {
+
+        //given - precondition or setup
+        String email = generator.employee(1234).getEmail();
+        long id = seeded.firstId() + 1234;
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output
+        assertIndexed(() -> employeeRepository.findByEmail(email), email);
+        assertIndexed(() -> employeeRepository.findById(id), id);
+        assertIndexed(() -> employeeRepository.findAllById(List.of(id, id + 1, id + 2)), id, id + 1, id + 2);
+    }
+
+    // Junit test for the plans of the first and last name lookups
+    @DisplayName("Junit test for JPQL and native first and last name lookups using an index")
+    @Test
+    public void givenSeededEmployees_whenExplainNameLookups_thenNoFullScanOrFilesort() {
+
+        //given - precondition or setup
+        Employee seededEmployee = generator.employee(1234);
+        String firstName = seededEmployee.getFirstName();
+        String lastName = seededEmployee.getLastName();
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output, the lookups return a single employee so they run with a name nobody has
+        assertIndexed(() -> employeeRepository.findByJPQL("Nobody", "Nobody"), firstName, lastName);
+        assertIndexed(() -> employeeRepository.findByJPQLNamedParams("Nobody", "Nobody"), firstName, lastName);
+        assertIndexed(() -> employeeRepository.findByNativeSQL("Nobody", "Nobody"), firstName, lastName);
+        assertIndexed(() -> employeeRepository.findByNativeSQLNamedParams("Nobody", "Nobody"), firstName, lastName);
+    }
+
+    // Junit test for the plans of the search queries
+    @DisplayName("Junit test for search specifications using an index")
+    @Test
+    public void givenSeededEmployees_whenExplainSearches_thenNoFullScan() {
+
+        //given - precondition or setup
+        Employee seededEmployee = generator.employee(4321);
+        String lastName = seededEmployee.getLastName();
+        String firstName = seededEmployee.getFirstName();
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output, a last name and first name match is read in id order straight from the index
+        assertIndexed(() -> employeeRepository.findPage(EmployeeSpecifications.idGreaterThan(0)
+                        .and(EmployeeSpecifications.lastNameIs(lastName))
+                        .and(EmployeeSpecifications.firstNameIs(firstName)), 21),
+                0L, lastName, firstName, 21);
+        assertNoFullScan(() -> employeeRepository.findPage(EmployeeSpecifications.idGreaterThan(0)
+                        .and(EmployeeSpecifications.lastNameStartsWith("Ok")), 21),
+                0L, "Ok%", 21);
+        assertNoFullScan(() -> employeeRepository.findPage(EmployeeSpecifications.idGreaterThan(0)
+                        .and(EmployeeSpecifications.emailStartsWith("zara.")), 21),
+                0L, "zara.%", 21);
+    }
+
+    // Junit test for the plans of the keyset page and the writes by id
+    @DisplayName("Junit test for keyset pages, deletes and updates by id using the primary key")
+    @Test
+    public void givenSeededEmployees_whenExplainKeysetAndWritesById_thenNoFullScanOrFilesort() {
+
+        //given - precondition or setup
+        long id = seeded.firstId() + 5000;
+        Employee changes = Employee.builder().firstName("Joan").build();
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output, writes run against a missing id and are explained with a seeded one
+        assertIndexed(() -> employeeRepository.findByIdGreaterThanOrderByIdAsc(id, PageRequest.of(0, 20)), id, 20);
+        assertIndexed(() -> employeeRepository.deleteEmployeeById(-1L), id);
+        assertIndexed(() -> employeeRepository.findExistingIds(List.of(-1L, -2L)), id, id + 1);
+        assertIndexed(() -> employeeRepository.deleteEmployeesByIds(List.of(-1L, -2L)), id, id + 1);
+        // the partial update sets updated_at and increments version too
+        assertIndexed(() -> employeeRepository.updateNonNullFields(-1L, changes), "Joan", Timestamp.from(Instant.now()), 1L, id);
+    }
+
+    // Junit test for the plan of the changedSince page
+    @DisplayName("Junit test for the changedSince keyset page reading the updated_at index in order")
+    @Test
+    public void givenSeededEmployees_whenExplainChangedAfter_thenNoFullScanOrFilesort() {
+
+        //given - precondition or setup, every seeded row was loaded before now
+        Timestamp since = Timestamp.from(Instant.now());
+        Timestamp until = Timestamp.from(Instant.now().plusSeconds(60));
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output
+        assertIndexed(() -> employeeRepository.findChangedAfter(since.toInstant(), Long.MAX_VALUE, until.toInstant(),
+                PageRequest.of(0, 501)), since, since, Long.MAX_VALUE, until, 501);
+    }
+
+    // Junit test for the plans of the queries reading the whole table
+    @DisplayName("Junit test for full table reads not sorting outside an index")
+    @Test
+    public void givenSeededEmployees_whenExplainTableReads_thenNoFilesort() {
+
+        //given - precondition or setup
+        String pattern = "%@javaguides.net";
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output
+        assertNoFilesort(() -> employeeRepository.findIdsByEmailLike(pattern, 0, PageRequest.of(0, 1000)), pattern, 0L, 1000);
+        // streaming queries need a surrounding transaction
+        assertNoFilesort(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (var employees = employeeRepository.streamAll()) {
+                employees.findFirst();
+            }
+        }));
+    }
+
+    private void assertIndexed(Runnable query, Object... parameters) {
+        for (Map<String, Object> row : explain(query, parameters)) {
+            assertThat(row.get("type")).as("access type of %s", row).isNotEqualTo("ALL");
+            assertNotFilesorted(row);
+        }
+    }
+
+    /**
+     * Prefix searches are sorted by id after the index range scan, only a full scan fails.
+     */
+    private void assertNoFullScan(Runnable query, Object... parameters) {
+        for (Map<String, Object> row : explain(query, parameters))
+            assertThat(row.get("type")).as("access type of %s", row).isNotEqualTo("ALL");
+    }
+
+    private void assertNoFilesort(Runnable query, Object... parameters) {
+        for (Map<String, Object> row : explain(query, parameters))
+            assertNotFilesorted(row);
+    }
+
+    private static void assertNotFilesorted(Map<String, Object> row) {
+        assertThat(String.valueOf(row.get("Extra"))).as("extra of %s", row).doesNotContain("Using filesort");
+    }
+
+    /**
+     * Run the query to capture the statement Hibernate sends, then explain that statement with the given parameters.
+     */
+    private List<Map<String, Object>> explain(Runnable query, Object... parameters) {
+        SqlStatementCounter.reset();
+        query.run();
+        List<String> statements = SqlStatementCounter.statements().stream()
+                .filter(sql -> SqlStatementCounter.type(sql) != SqlStatementCounter.Type.SEQUENCE)
+                .toList();
+        assertThat(statements).as("statements run by the query").hasSize(1);
+
+        String sql = statements.get(0);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as("parameters of %s", sql).isEqualTo(parameters.length);
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + sql, parameters);
+        assertThat(plan).as("plan of %s", sql).isNotEmpty();
+        return plan;
+    }
+}
@@ -1,23 +1,41 @@
 package net.javaguides.springboot.repository;
 
+import net.javaguides.springboot.dto.EmployeesVersion;
 import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.support.EmployeeBulkLoader;
+import net.javaguides.springboot.support.EmployeeDataGenerator;
+import net.javaguides.springboot.support.SqlStatementCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import javax.sql.DataSource;
+
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-@DataJpaTest
+@DataJpaTest(properties = SqlStatementCounter.ENABLED)
 public class EmployeeRepositoryTest {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
     private Employee employee;
 
 
@@ -71,6 +89,60 @@ public class EmployeeRepositoryTest {
 
     }
 
+    // Junit test for keyset page operation
+    @DisplayName("Junit test for keyset page operation")
+    @Test
+    public void givenEmployeesList_whenFindByIdGreaterThan_thenReturnNextKeysetPage() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("sanchez@gmail.com")
+                .build();
+
+        Employee employee2 = Employee.builder()
+                .firstName("Paula")
+                .lastName("Roa")
+                .email("paula@gmail.com")
+                .build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> firstPage = employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        List<Employee> secondPage = employeeRepository.findByIdGreaterThanOrderByIdAsc(
+                firstPage.get(1).getId(), PageRequest.of(0, 2));
+
+        //then - verify the output
+        assertThat(firstPage).extracting(Employee::getEmail)
+                .containsExactly("setoba1192@gmail.com", "sanchez@gmail.com");
+        assertThat(secondPage).extracting(Employee::getEmail)
+                .containsExactly("paula@gmail.com");
+    }
+
+    // Junit test for the email unique constraint
+    @DisplayName("Junit test for save employee with duplicated email")
+    @Test
+    public void givenExistingEmail_whenSaveAndFlush_thenThrowsDataIntegrityViolation() {
+
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        Employee employee1 = Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email(employee.getEmail())
+                .build();
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(employee1))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
     // Junit test for get employ by id operation
     @DisplayName("Junit test for get employ by id operation")
     @Test
@@ -122,6 +194,102 @@ public class EmployeeRepositoryTest {
         assertThat(updatedEmployee.getFirstName()).isEqualTo("Paula");
     }
 
+    // Junit test for partial update operation
+    @DisplayName("Junit test for partial update operation")
+    @Test
+    public void givenEmployeeObject_whenUpdateNonNullFields_thenUpdateOnlyThoseFields() {
+
+        //given - precondition or setup (replaced by setup method)
+        employeeRepository.saveAndFlush(employee);
+
+        Employee changes = Employee.builder()
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        //when - action or the behavior that we are goint to test
+        int updatedRows = employeeRepository.updateNonNullFields(employee.getId(), changes);
+        entityManager.clear();
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+
+        //then - verify the output
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(updatedEmployee.getEmail()).isEqualTo("setoba1192@hotmail.com");
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Joan");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+        assertThat(updatedEmployee.getUpdatedAt()).isAfterOrEqualTo(employee.getUpdatedAt());
+        assertThat(employeeRepository.updateNonNullFields(employee.getId() + 1, changes)).isZero();
+    }
+
+    // Junit test for the changedSince keyset page
+    @DisplayName("Junit test for employees changed after a position in updatedAt and id order")
+    @Test
+    public void givenChangedEmployees_whenFindChangedAfter_thenKeysetPageByUpdatedAt() {
+
+        //given - precondition or setup
+        Instant watermark = Instant.parse("2026-10-16T00:00:00Z");
+        Employee before = saveUpdatedAt(employee, watermark);
+        Employee first = saveUpdatedAt(Employee.builder()
+                .firstName("Sebastian").lastName("Roa").email("sebastian@hotmail.com").build(), watermark.plusSeconds(60));
+        Employee second = saveUpdatedAt(Employee.builder()
+                .firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build(), watermark.plusSeconds(60));
+        Employee third = saveUpdatedAt(Employee.builder()
+                .firstName("Paula").lastName("Roa").email("paula@gmail.com").build(), watermark.plusSeconds(120));
+        Instant until = watermark.plusSeconds(120);
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> firstPage = employeeRepository.findChangedAfter(watermark, Long.MAX_VALUE, until, PageRequest.of(0, 2));
+        List<Employee> secondPage = employeeRepository.findChangedAfter(
+                second.getUpdatedAt(), second.getId(), until, PageRequest.of(0, 2));
+        List<Employee> untilFirst = employeeRepository.findChangedAfter(
+                watermark, Long.MAX_VALUE, watermark.plusSeconds(60), PageRequest.of(0, 10));
+
+        //then - verify the output
+        assertThat(firstPage).extracting(Employee::getId).containsExactly(first.getId(), second.getId());
+        assertThat(secondPage).extracting(Employee::getId).containsExactly(third.getId());
+        assertThat(untilFirst).extracting(Employee::getId).doesNotContain(before.getId(), third.getId());
+    }
+
+    // Junit test for the version of the whole table
+    @DisplayName("Junit test for the employees version changing with updates and deletes")
+    @Test
+    public void givenEmployees_whenFindEmployeesVersion_thenCountAndLastUpdatedAt() {
+
+        //given - precondition or setup
+        Instant watermark = Instant.parse("2026-10-16T00:00:00Z");
+        saveUpdatedAt(employee, watermark.plusSeconds(60));
+        Employee sebastian = saveUpdatedAt(Employee.builder()
+                .firstName("Sebastian").lastName("Roa").email("sebastian@hotmail.com").build(), watermark);
+
+        //when - action or the behavior that we are goint to test
+        EmployeesVersion initial = employeeRepository.findEmployeesVersion();
+        // the update moves the newest updatedAt
+        saveUpdatedAt(sebastian, watermark.plusSeconds(120));
+        EmployeesVersion updated = employeeRepository.findEmployeesVersion();
+        employeeRepository.deleteEmployeeById(sebastian.getId());
+        EmployeesVersion deleted = employeeRepository.findEmployeesVersion();
+
+        //then - verify the output
+        assertThat(initial.getCount()).isEqualTo(2L);
+        assertThat(initial.getLastUpdatedAt()).isEqualTo(watermark.plusSeconds(60));
+        assertThat(updated.getLastUpdatedAt()).isEqualTo(watermark.plusSeconds(120));
+        assertThat(deleted.getCount()).isEqualTo(1L);
+    }
+
+    /**
+     * Save the employee, then move its updatedAt to the given time, which the entity callbacks do not allow.
+     */
+    private Employee saveUpdatedAt(Employee employee, Instant updatedAt) {
+        employeeRepository.saveAndFlush(employee);
+        entityManager.getEntityManager()
+                .createQuery("update Employee e set e.updatedAt = :updatedAt where e.id = :id")
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", employee.getId())
+                .executeUpdate();
+        entityManager.clear();
+        employee.setUpdatedAt(updatedAt);
+        return employee;
+    }
+
     // Junit test for delete employee operation
     @DisplayName("Junit test for delete employee operation")
     @Test
@@ -140,6 +308,152 @@ public class EmployeeRepositoryTest {
 
     }
 
+    // Junit test for single statement delete operation
+    @DisplayName("Junit test for single statement delete operation")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenReturnDeletedRows() {
+
+        //given - precondition or setup (replaced by setup method)
+        employeeRepository.saveAndFlush(employee);
+
+        //when - action or the behavior that we are goint to test
+        int deletedRows = employeeRepository.deleteEmployeeById(employee.getId());
+        int missingRows = employeeRepository.deleteEmployeeById(employee.getId());
+        entityManager.clear();
+
+        //then - verify the output
+        assertThat(deletedRows).isEqualTo(1);
+        assertThat(missingRows).isZero();
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    // Junit test for search pages built from specifications
+    @DisplayName("Junit test for findPage with search specifications")
+    @Test
+    public void givenEmployeesList_whenFindPageWithSpecifications_thenMatchingEmployeesInIdOrder() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder().firstName("Sebastian").lastName("Roa").email("sebastian@gmail.com").build();
+        Employee employee2 = Employee.builder().firstName("Joan").lastName("Rojas").email("joan.rojas@gmail.com").build();
+        Employee employee3 = Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee1, employee2, employee3));
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> lastNamePrefix = employeeRepository.findPage(
+                EmployeeSpecifications.idGreaterThan(0).and(EmployeeSpecifications.lastNameStartsWith("Ro")), 10);
+        List<Employee> secondPage = employeeRepository.findPage(
+                EmployeeSpecifications.idGreaterThan(employee.getId()).and(EmployeeSpecifications.lastNameStartsWith("Ro")), 1);
+        List<Employee> exactNames = employeeRepository.findPage(EmployeeSpecifications.lastNameIs("Roa")
+                .and(EmployeeSpecifications.firstNameIs("Joan")), 10);
+        List<Employee> wildcardIsLiteral = employeeRepository.findPage(EmployeeSpecifications.emailStartsWith("%"), 10);
+
+        //then - verify the output
+        assertThat(lastNamePrefix).extracting(Employee::getId)
+                .containsExactly(employee.getId(), employee1.getId(), employee2.getId());
+        assertThat(secondPage).extracting(Employee::getId).containsExactly(employee1.getId());
+        assertThat(exactNames).extracting(Employee::getId).containsExactly(employee.getId());
+        assertThat(wildcardIsLiteral).isEmpty();
+    }
+
+    // Junit test for the statements run by findByEmail
+    @DisplayName("Junit test for findByEmail statement budget")
+    @Test
+    public void givenEmployeeObject_whenFindByEmail_thenOneSelect() {
+
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+        SqlStatementCounter.reset();
+
+        //when - action or the behavior that we are goint to test
+        employeeRepository.findByEmail(employee.getEmail());
+
+        //then - verify the output
+        assertThat(SqlStatementCounter.counts()).isEqualTo(Map.of(SqlStatementCounter.Type.SELECT, 1));
+    }
+
+    // Junit test for the statements run by deleteEmployeeById
+    @DisplayName("Junit test for deleteEmployeeById statement budget")
+    @Test
+    public void givenEmployeeObject_whenDeleteEmployeeById_thenOneDeleteAndNoSelect() {
+
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        entityManager.clear();
+        SqlStatementCounter.reset();
+
+        //when - action or the behavior that we are goint to test
+        employeeRepository.deleteEmployeeById(employee.getId());
+
+        //then - verify the output
+        assertThat(SqlStatementCounter.counts()).isEqualTo(Map.of(SqlStatementCounter.Type.DELETE, 1));
+    }
+
+    // Junit test for the statements run by a batched saveAll
+    @DisplayName("Junit test for batched saveAll statement budget")
+    @Test
+    public void givenEmployeesList_whenSaveAllAndFlush_thenOneBatchedInsert() {
+
+        //given - precondition or setup
+        List<Employee> employees = List.of(
+                Employee.builder().firstName("Joan").lastName("Roa").email("joan@gmail.com").build(),
+                Employee.builder().firstName("Sebastian").lastName("Sanchez").email("sebastian@gmail.com").build(),
+                Employee.builder().firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build());
+        SqlStatementCounter.reset();
+
+        //when - action or the behavior that we are goint to test
+        employeeRepository.saveAll(employees);
+        employeeRepository.flush();
+
+        //then - verify the output
+        assertThat(SqlStatementCounter.counts()).isEqualTo(Map.of(SqlStatementCounter.Type.INSERT, 1));
+    }
+
+    // Junit test for bulk delete by email domain operations
+    @DisplayName("Junit test for bulk delete by email domain operations")
+    @Test
+    public void givenEmployeesList_whenFindIdsByEmailLikeAndDelete_thenRemoveOnlyThatDomain() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("sanchez@hotmail.com")
+                .build();
+        Employee employee2 = Employee.builder()
+                .firstName("Paula")
+                .lastName("Roa")
+                .email("paula@gmail.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee1, employee2));
+
+        //when - action or the behavior that we are goint to test
+        List<Long> ids = employeeRepository.findIdsByEmailLike("%@gmail.com", 0L, PageRequest.of(0, 10));
+        int deletedRows = employeeRepository.deleteEmployeesByIds(ids);
+        entityManager.clear();
+
+        //then - verify the output
+        assertThat(ids).containsExactly(employee.getId(), employee2.getId());
+        assertThat(deletedRows).isEqualTo(2);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail)
+                .containsExactly("sanchez@hotmail.com");
+    }
+
+    // Junit test for findExistingIds operation
+    @DisplayName("Junit test for findExistingIds operation")
+    @Test
+    public void givenIdsList_whenFindExistingIds_thenReturnOnlyStoredIds() {
+
+        //given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        //when - action or the behavior that we are goint to test
+        List<Long> existingIds = employeeRepository.findExistingIds(List.of(employee.getId(), employee.getId() + 1000));
+
+        //then - verify the output
+        assertThat(existingIds).containsExactly(employee.getId());
+    }
+
     // Junit test for custom JPQL operation
     @DisplayName("Junit test for custom JPQL operation")
     @Test
@@ -213,4 +527,34 @@ public class EmployeeRepositoryTest {
         //then - verify the output
         assertThat(savedEmployee).isNotNull();
     }
+
+    // Junit test for keyset pages over a generated data set
+    @DisplayName("Junit test for keyset pages over bulk loaded employees")
+    @Test
+    public void givenBulkLoadedEmployees_whenFindByIdGreaterThanPages_thenEveryEmployeeOnce() {
+
+        //given - precondition or setup
+        EmployeeBulkLoader.Loaded loaded = new EmployeeBulkLoader(dataSource)
+                .load(new EmployeeDataGenerator(18).employees(5_000));
+
+        //when - action or the behavior that we are goint to test
+        long pages = 0;
+        long employees = 0;
+        long lastId = 0;
+        List<Employee> page;
+        while (!(page = employeeRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, 100))).isEmpty()) {
+            pages++;
+            employees += page.size();
+            lastId = page.get(page.size() - 1).getId();
+            entityManager.clear();
+        }
+        Employee saved = employeeRepository.saveAndFlush(employee);
+
+        //then - verify the output
+        assertThat(loaded.count()).isEqualTo(5_000);
+        assertThat(employees).isEqualTo(5_000);
+        assertThat(pages).isEqualTo(50);
+        assertThat(lastId).isEqualTo(loaded.lastId());
+        assertThat(saved.getId() < loaded.firstId() || saved.getId() > loaded.lastId()).isTrue();
+    }
 }
@@ -0,0 +1,131 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeBatchLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeBatchLoaderTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeBatchLoader employeeBatchLoader;
+
+    private final Employee employee = Employee.builder()
+            .id(1L)
+            .firstName("Joan")
+            .lastName("Roa")
+            .email("setoba1192@gmail.com")
+            .build();
+
+    @AfterEach
+    public void tearDown() {
+        if (employeeBatchLoader != null)
+            employeeBatchLoader.destroy();
+    }
+
+    // Junit test for lookups collected within the batch window
+    @DisplayName("Junit test for batch loader window")
+    @Test
+    public void givenConcurrentLookups_whenWindowElapses_thenLoadWithOneQuery() {
+
+        //given - precondition or setup
+        employeeBatchLoader = new EmployeeBatchLoader(employeeRepository, true, Duration.ofMillis(50), 100, 2);
+        given(employeeRepository.findAllById(Set.of(1L, 2L))).willReturn(List.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        CompletableFuture<Optional<Employee>> first = employeeBatchLoader.load(1L);
+        CompletableFuture<Optional<Employee>> missing = employeeBatchLoader.load(2L);
+        CompletableFuture<Optional<Employee>> again = employeeBatchLoader.load(1L);
+
+        //then - verify the output
+        assertThat(first.join()).contains(employee);
+        assertThat(again.join()).contains(employee);
+        assertThat(missing.join()).isEmpty();
+        verify(employeeRepository, times(1)).findAllById(any());
+    }
+
+    // Junit test for a batch sent as soon as it is full
+    @DisplayName("Junit test for batch loader maximum batch size")
+    @Test
+    public void givenFullBatch_whenLoad_thenLoadWithoutWaitingForWindow() {
+
+        //given - precondition or setup
+        employeeBatchLoader = new EmployeeBatchLoader(employeeRepository, true, Duration.ofHours(1), 2, 2);
+        given(employeeRepository.findAllById(Set.of(1L, 2L))).willReturn(List.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        CompletableFuture<Optional<Employee>> first = employeeBatchLoader.load(1L);
+        CompletableFuture<Optional<Employee>> second = employeeBatchLoader.load(2L);
+
+        //then - verify the output
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(first.join()).contains(employee);
+    }
+
+    // Junit test for windowed batches loaded concurrently
+    @DisplayName("Junit test for batch loader not holding back the next batch behind a slow query")
+    @Test
+    public void givenSlowBatch_whenNextWindowCloses_thenLoadedConcurrently() throws Exception {
+
+        //given - precondition or setup
+        employeeBatchLoader = new EmployeeBatchLoader(employeeRepository, true, Duration.ofMillis(1), 100, 2);
+        Employee sebastian = Employee.builder().id(2L).firstName("Sebastian").lastName("Roa").email("sebastian@hotmail.com").build();
+        CountDownLatch slowQueryStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowQuery = new CountDownLatch(1);
+        given(employeeRepository.findAllById(Set.of(1L))).willAnswer(invocation -> {
+            slowQueryStarted.countDown();
+            releaseSlowQuery.await(5, TimeUnit.SECONDS);
+            return List.of(employee);
+        });
+        given(employeeRepository.findAllById(Set.of(2L))).willReturn(List.of(sebastian));
+
+        //when - action or the behavior that we are goint to test
+        CompletableFuture<Optional<Employee>> slow = employeeBatchLoader.load(1L);
+        assertThat(slowQueryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Optional<Employee>> next = employeeBatchLoader.load(2L);
+
+        //then - verify the output
+        assertThat(next.get(5, TimeUnit.SECONDS)).contains(sebastian);
+        assertThat(slow).isNotDone();
+        releaseSlowQuery.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).contains(employee);
+    }
+
+    // Junit test for query failures propagated to every caller of the batch
+    @DisplayName("Junit test for batch loader failure")
+    @Test
+    public void givenFailingQuery_whenGet_thenThrowOriginalException() {
+
+        //given - precondition or setup
+        employeeBatchLoader = new EmployeeBatchLoader(employeeRepository, true, Duration.ofMillis(1), 1, 2);
+        given(employeeRepository.findAllById(Set.of(1L))).willThrow(new IllegalStateException("database down"));
+
+        // when - then
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            employeeBatchLoader.get(1L);
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeChangesPage;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeChangeFollower;
+import net.javaguides.springboot.service.impl.EmployeeChangeRelay;
+import net.javaguides.springboot.service.impl.EmployeeWriteTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeFollowerTest {
+
+    @Mock
+    private EmployeeChangeFeed changeFeed;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeChangeFollower changeFollower;
+
+    @BeforeEach
+    public void setup() {
+        changeFollower = new EmployeeChangeFollower(changeFeed, eventPublisher,
+                new EmployeeWriteTracker(Duration.ofSeconds(30)), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        changeFollower.destroy();
+    }
+
+    // Junit test for republishing the changes of every instance
+    @DisplayName("Junit test for publishing every page of changes and moving the watermark")
+    @Test
+    public void givenChangesSinceWatermark_whenFollow_thenEventsPublished() {
+
+        //given - precondition or setup
+        Instant changedSince = changeFollower.watermark();
+        Instant watermark = changedSince.plusSeconds(1);
+        Employee joan = Employee.builder().id(1L).firstName("Joan").lastName("Roa").email("setoba1192@gmail.com").version(3L).build();
+        Employee sebastian = Employee.builder().id(2L).firstName("Sebastian").lastName("Rojas").email("sebastian@hotmail.com").build();
+        given(changeFeed.getChangesSince(changedSince, null, EmployeeChangeRelay.MAX_SYNC_PAGE_SIZE))
+                .willReturn(new EmployeeChangesPage(List.of(joan), List.of(), "next", null));
+        given(changeFeed.getChangesSince(changedSince, "next", EmployeeChangeRelay.MAX_SYNC_PAGE_SIZE))
+                .willReturn(new EmployeeChangesPage(List.of(sebastian),
+                        List.of(new EmployeeChangesPage.Tombstone(5L, changedSince.plusMillis(1))), null, watermark));
+
+        //when - action or the behavior that we are goint to test
+        changeFollower.follow();
+
+        //then - verify the output
+        InOrder inOrder = inOrder(eventPublisher);
+        inOrder.verify(eventPublisher).publishEvent(EmployeeChangedEvent.updated(joan));
+        inOrder.verify(eventPublisher).publishEvent(EmployeeChangedEvent.updated(sebastian));
+        inOrder.verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(5L));
+        assertThat(changeFollower.watermark()).isEqualTo(watermark);
+    }
+
+    // Junit test for a failed pull
+    @DisplayName("Junit test for the watermark staying when the changes cannot be read")
+    @Test
+    public void givenFeedFails_whenFollow_thenWatermarkKept() {
+
+        //given - precondition or setup
+        Instant changedSince = changeFollower.watermark();
+        given(changeFeed.getChangesSince(eq(changedSince), any(), anyInt()))
+                .willThrow(new IllegalStateException("database is down"));
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output
+        assertThatThrownBy(() -> changeFollower.follow()).isInstanceOf(IllegalStateException.class);
+        assertThat(changeFollower.watermark()).isEqualTo(changedSince);
+        verifyNoInteractions(eventPublisher);
+    }
+}
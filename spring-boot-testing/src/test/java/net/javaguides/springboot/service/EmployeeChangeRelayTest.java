@@ -0,0 +1,348 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeeChangesPage;
+import net.javaguides.springboot.exception.ChangesExpiredException;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeChangeRelay;
+import net.javaguides.springboot.service.impl.EmployeeWriteTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeChangeRelayTest {
+
+    @Mock
+    private EmployeeChangeRepository changeRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    // no sync gap timeout, only the open writes hold the changedSince watermark back
+    private final EmployeeWriteTracker writeTracker = new EmployeeWriteTracker(Duration.ZERO);
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    private EmployeeChangeRelay relay;
+
+    @BeforeEach
+    public void setup() {
+        relay = new EmployeeChangeRelay(changeRepository, employeeRepository, writeTracker, Duration.ofMillis(200), 500,
+                Duration.ofSeconds(1), Duration.ofSeconds(15), Duration.ofMinutes(30), Duration.ofDays(7)) {
+            @Override
+            protected SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        relay.destroy();
+    }
+
+    // Junit test for delivering the changes committed after the subscription
+    @DisplayName("Junit test for delivering new changes in id order with their ids")
+    @Test
+    public void givenSubscriber_whenPoll_thenNewChangesInOrder() {
+
+        //given - precondition or setup
+        Instant old = Instant.now().minusSeconds(10);
+        given(changeRepository.findFirstByOrderByIdDesc()).willReturn(Optional.of(change(10L, old)));
+        relay.subscribe(null);
+        given(changeRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 500)))
+                .willReturn(List.of(change(11L, old), change(12L, old)));
+
+        //when - action or the behavior that we are goint to test
+        relay.poll();
+
+        //then - verify the output
+        assertThat(emitters.get(0).eventIds()).containsExactly("11", "12");
+    }
+
+    // Junit test for subscribers sharing a cursor
+    @DisplayName("Junit test for one query per group of subscribers with the same cursor")
+    @Test
+    public void givenSubscribersAtSameCursor_whenPoll_thenOneQuery() {
+
+        //given - precondition or setup
+        Instant old = Instant.now().minusSeconds(10);
+        given(changeRepository.findFirstByOrderByIdDesc()).willReturn(Optional.of(change(10L, old)));
+        relay.subscribe(null);
+        relay.subscribe(null);
+        relay.subscribe(null);
+        given(changeRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 500)))
+                .willReturn(List.of(change(11L, old)));
+
+        //when - action or the behavior that we are goint to test
+        relay.poll();
+
+        //then - verify the output
+        verify(changeRepository, times(1)).findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 500));
+        assertThat(emitters).allSatisfy(emitter -> assertThat(emitter.eventIds()).containsExactly("11"));
+    }
+
+    // Junit test for a transaction that has not committed yet
+    @DisplayName("Junit test for holding back the changes after a recent gap in the ids")
+    @Test
+    public void givenRecentGap_whenPoll_thenStopBeforeGap() {
+
+        //given - precondition or setup
+        Instant old = Instant.now().minusSeconds(10);
+        given(changeRepository.findFirstByOrderByIdDesc()).willReturn(Optional.of(change(10L, old)));
+        relay.subscribe(null);
+        // 12 may still commit, 14 is missing for longer than the gap timeout
+        given(changeRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.of(0, 500)))
+                .willReturn(List.of(change(11L, old), change(13L, Instant.now())));
+        given(changeRepository.findByIdGreaterThanOrderByIdAsc(11L, PageRequest.of(0, 500)))
+                .willReturn(List.of(change(13L, old), change(15L, old)));
+
+        //when - action or the behavior that we are goint to test
+        relay.poll();
+        List<String> firstPoll = emitters.get(0).eventIds();
+        relay.poll();
+
+        //then - verify the output
+        assertThat(firstPoll).containsExactly("11");
+        assertThat(emitters.get(0).eventIds()).containsExactly("11", "13", "15");
+    }
+
+    // Junit test for resuming from a purged Last-Event-ID
+    @DisplayName("Junit test for a reset event when the changes after Last-Event-ID were purged")
+    @Test
+    public void givenPurgedLastEventId_whenSubscribe_thenResetThenOldestChanges() {
+
+        //given - precondition or setup
+        Instant old = Instant.now().minusSeconds(10);
+        given(changeRepository.findFirstByOrderByIdAsc()).willReturn(Optional.of(change(100L, old)));
+        given(changeRepository.findByIdGreaterThanOrderByIdAsc(99L, PageRequest.of(0, 500)))
+                .willReturn(List.of(change(100L, old)));
+
+        //when - action or the behavior that we are goint to test
+        relay.subscribe(5L);
+        relay.poll();
+
+        //then - verify the output
+        assertThat(emitters.get(0).eventNames()).containsExactly("reset", "UPDATED");
+        assertThat(emitters.get(0).eventIds()).containsExactly("100");
+    }
+
+    // Junit test for resuming from a retained Last-Event-ID
+    @DisplayName("Junit test for resuming right after Last-Event-ID")
+    @Test
+    public void givenRetainedLastEventId_whenSubscribe_thenNoReset() {
+
+        //given - precondition or setup
+        Instant old = Instant.now().minusSeconds(10);
+        given(changeRepository.findFirstByOrderByIdAsc()).willReturn(Optional.of(change(3L, old)));
+        given(changeRepository.findByIdGreaterThanOrderByIdAsc(5L, PageRequest.of(0, 500)))
+                .willReturn(List.of(change(6L, old)));
+
+        //when - action or the behavior that we are goint to test
+        relay.subscribe(5L);
+        relay.poll();
+
+        //then - verify the output
+        assertThat(emitters.get(0).eventNames()).containsExactly("UPDATED");
+        assertThat(emitters.get(0).eventIds()).containsExactly("6");
+    }
+
+    // Junit test for the retention purge
+    @DisplayName("Junit test for purging old changes in chunks")
+    @Test
+    public void givenOldChanges_whenPurge_thenDeletedInChunks() {
+
+        //given - precondition or setup
+        List<Long> firstChunk = LongStream.rangeClosed(1, 1000).boxed().toList();
+        List<Long> secondChunk = List.of(1001L, 1002L);
+        given(changeRepository.findIdsCreatedBefore(any(Instant.class), any()))
+                .willReturn(firstChunk, secondChunk);
+
+        //when - action or the behavior that we are goint to test
+        int deleted = relay.purge();
+
+        //then - verify the output
+        assertThat(deleted).isEqualTo(1002);
+        verify(changeRepository).deleteAllByIdInBatch(firstChunk);
+        verify(changeRepository).deleteAllByIdInBatch(secondChunk);
+    }
+
+    // Junit test for the changedSince sync
+    @DisplayName("Junit test for changed employees and tombstones merged in keyset pages")
+    @Test
+    public void givenUpdatesAndDeletes_whenGetChangesSince_thenMergedPages() {
+
+        //given - precondition or setup
+        Instant since = Instant.now().minus(Duration.ofHours(1));
+        Employee joan = employee(1L, since.plusSeconds(10));
+        Employee sebastian = employee(2L, since.plusSeconds(30));
+        EmployeeChange deleted = EmployeeChange.builder()
+                .id(7L)
+                .type(EmployeeChange.Type.DELETED)
+                .employeeId(5L)
+                .payload("{\"type\":\"DELETED\",\"employeeId\":5,\"employee\":null}")
+                .createdAt(since.plusSeconds(20))
+                .build();
+        given(employeeRepository.findChangedAfter(eq(since), eq(Long.MAX_VALUE), any(Instant.class), eq(PageRequest.of(0, 3))))
+                .willReturn(List.of(joan, sebastian));
+        given(changeRepository.findAfter(eq(EmployeeChange.Type.DELETED), eq(since), eq(Long.MAX_VALUE),
+                any(Instant.class), eq(PageRequest.of(0, 3))))
+                .willReturn(List.of(deleted));
+
+        //when - action or the behavior that we are goint to test
+        EmployeeChangesPage firstPage = relay.getChangesSince(since, null, 2);
+
+        //then - verify the output, the page ends with the tombstone
+        assertThat(firstPage.getEmployees()).containsExactly(joan);
+        assertThat(firstPage.getDeleted()).containsExactly(new EmployeeChangesPage.Tombstone(5L, since.plusSeconds(20)));
+        assertThat(firstPage.getNext()).isNotNull();
+        assertThat(firstPage.getWatermark()).isNull();
+
+        //given - the following page starts after the tombstone
+        given(employeeRepository.findChangedAfter(eq(since.plusSeconds(20)), eq(5L), any(Instant.class), eq(PageRequest.of(0, 3))))
+                .willReturn(List.of(sebastian));
+        given(changeRepository.findAfter(eq(EmployeeChange.Type.DELETED), eq(since.plusSeconds(20)), eq(5L),
+                any(Instant.class), eq(PageRequest.of(0, 3))))
+                .willReturn(List.of());
+
+        //when - action or the behavior that we are goint to test
+        EmployeeChangesPage lastPage = relay.getChangesSince(since, firstPage.getNext(), 2);
+
+        //then - verify the output, the last page has the watermark of the next sync
+        assertThat(lastPage.getEmployees()).containsExactly(sebastian);
+        assertThat(lastPage.getDeleted()).isEmpty();
+        assertThat(lastPage.getNext()).isNull();
+        assertThat(lastPage.getWatermark()).isBetween(since, Instant.now());
+    }
+
+    // Junit test for the watermark of the changedSince sync with a write transaction still open
+    @DisplayName("Junit test for the changedSince watermark staying before the oldest open write")
+    @Test
+    public void givenOpenWriteTransaction_whenGetChangesSince_thenWatermarkBeforeIt() {
+
+        //given - precondition or setup
+        Instant since = Instant.now().minus(Duration.ofHours(1));
+        given(employeeRepository.findChangedAfter(any(Instant.class), anyLong(), any(Instant.class), any(PageRequest.class)))
+                .willReturn(List.of());
+        given(changeRepository.findAfter(any(), any(Instant.class), anyLong(), any(Instant.class), any(PageRequest.class)))
+                .willReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        EmployeeChangesPage page;
+        EmployeeChangesPage afterCommit;
+        try {
+            writeTracker.begin();
+            // a batch create still running, its employees are stamped from start on
+            Instant start = writeTracker.oldestOpenWrite();
+
+            //when - action or the behavior that we are goint to test
+            page = relay.getChangesSince(since, null, 0);
+
+            //then - verify the output
+            assertThat(page.getWatermark()).isBefore(start);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        afterCommit = relay.getChangesSince(since, null, 0);
+
+        assertThat(writeTracker.oldestOpenWrite()).isNull();
+        assertThat(afterCommit.getWatermark()).isAfter(page.getWatermark());
+    }
+
+    // Junit test for a watermark older than the retention
+    @DisplayName("Junit test for changedSince older than the change retention")
+    @Test
+    public void givenWatermarkOlderThanRetention_whenGetChangesSince_thenChangesExpired() {
+
+        //given - precondition or setup
+        Instant since = Instant.now().minus(Duration.ofDays(8));
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output
+        assertThatThrownBy(() -> relay.getChangesSince(since, null, 0)).isInstanceOf(ChangesExpiredException.class);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    private static Employee employee(long id, Instant updatedAt) {
+        return Employee.builder()
+                .id(id)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("employee" + id + "@gmail.com")
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static EmployeeChange change(long id, Instant createdAt) {
+        return EmployeeChange.builder()
+                .id(id)
+                .type(EmployeeChange.Type.UPDATED)
+                .employeeId(1L)
+                .payload("{\"type\":\"UPDATED\",\"employeeId\":1}")
+                .createdAt(createdAt)
+                .build();
+    }
+
+    /**
+     * Keeps the events instead of writing them to a response.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        // the text of every event sent
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType data : builder.build())
+                text.append(data.getData());
+            events.add(text.toString());
+        }
+
+        List<String> eventIds() {
+            return fields("id:");
+        }
+
+        List<String> eventNames() {
+            return fields("event:");
+        }
+
+        private List<String> fields(String prefix) {
+            return events.stream()
+                    .flatMap(String::lines)
+                    .filter(line -> line.startsWith(prefix))
+                    .map(line -> line.substring(prefix.length()))
+                    .toList();
+        }
+    }
+}
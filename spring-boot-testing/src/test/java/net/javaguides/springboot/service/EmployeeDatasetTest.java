@@ -0,0 +1,251 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.model.EmployeeChange;
+import net.javaguides.springboot.repository.EmployeeChangeRepository;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeChangeFollower;
+import net.javaguides.springboot.service.impl.EmployeeDataset;
+import net.javaguides.springboot.service.impl.EmployeeSnapshot;
+import net.javaguides.springboot.service.impl.EmployeeWriteTracker;
+import net.javaguides.springboot.service.impl.InMemoryEmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeDatasetTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeChangeRepository changeRepository;
+
+    @Mock
+    private ObjectProvider<InMemoryEmployeeService> inMemoryEmployeeService;
+
+    @Mock
+    private EmployeeChangeFollower changeFollower;
+
+    @TempDir
+    Path directory;
+
+    private final EmployeeWriteTracker writeTracker = new EmployeeWriteTracker(Duration.ZERO);
+
+    private final List<EmployeeDataset> datasets = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        datasets.forEach(EmployeeDataset::destroy);
+    }
+
+    // Junit test for a restart from a snapshot
+    @DisplayName("Junit test for loading the employees from the snapshot and the rows changed since")
+    @Test
+    public void givenSnapshot_whenForEachPage_thenSnapshotThenNewRows() throws IOException {
+
+        //given - precondition or setup
+        Employee joan = employee(1L, "Joan", "Roa", "setoba1192@gmail.com");
+        Employee sebastian = employee(2L, "Sebastian", "Roa", "sebastian@hotmail.com");
+        Employee ramesh = employee(3L, "Ramesh", "Fadatare", "ramesh@gmail.com");
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000)))
+                .willReturn(List.of(joan, sebastian));
+        given(inMemoryEmployeeService.getIfAvailable()).willReturn(null);
+        EmployeeSnapshot.Header written = dataset(Duration.ofDays(1), Duration.ofDays(7)).writeSnapshot();
+
+        given(employeeRepository.findChangedAfter(eq(written.changedUntil()), eq(Long.MAX_VALUE), any(Instant.class),
+                eq(PageRequest.of(0, 1000)))).willReturn(List.of(ramesh));
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> loaded = new ArrayList<>();
+        dataset(Duration.ofDays(1), Duration.ofDays(7)).forEachPage(loaded::addAll);
+
+        //then - verify the output
+        assertThat(loaded).extracting(Employee::getId).containsExactly(1L, 2L, 3L);
+        assertThat(loaded.get(1).getFirstName()).isEqualTo("Sebastian");
+        // the table was only read once to write the snapshot
+        verify(employeeRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000));
+    }
+
+    // Junit test for ignoring old snapshots
+    @DisplayName("Junit test for reading the table when the snapshot is too old")
+    @Test
+    public void givenOldSnapshot_whenForEachPage_thenTableScan() throws IOException {
+
+        //given - precondition or setup
+        Employee joan = employee(1L, "Joan", "Roa", "setoba1192@gmail.com");
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000)))
+                .willReturn(List.of(joan));
+        given(inMemoryEmployeeService.getIfAvailable()).willReturn(null);
+        dataset(Duration.ofDays(1), Duration.ofDays(7)).writeSnapshot();
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> loaded = new ArrayList<>();
+        dataset(Duration.ZERO, Duration.ofDays(7)).forEachPage(loaded::addAll);
+
+        //then - verify the output
+        assertThat(loaded).containsExactly(joan);
+        verify(employeeRepository, times(2)).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000));
+    }
+
+    // Junit test for ignoring snapshots whose deletes are no longer in the outbox
+    @DisplayName("Junit test for reading the table when the snapshot is older than the change retention")
+    @Test
+    public void givenSnapshotOlderThanRetention_whenForEachPage_thenTableScan() throws IOException {
+
+        //given - precondition or setup
+        Employee joan = employee(1L, "Joan", "Roa", "setoba1192@gmail.com");
+        try (EmployeeSnapshot.Writer writer = EmployeeSnapshot.writer(directory.resolve("employees.snapshot"))) {
+            writer.add(joan);
+            writer.finish(Employee.now().minus(Duration.ofDays(2)));
+        }
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000)))
+                .willReturn(List.of(joan));
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> loaded = new ArrayList<>();
+        dataset(Duration.ofDays(1), Duration.ofDays(1)).forEachPage(loaded::addAll);
+
+        //then - verify the output
+        assertThat(loaded).containsExactly(joan);
+        verifyNoInteractions(changeRepository);
+    }
+
+    // Junit test for catching up with changes made while the node was down
+    @DisplayName("Junit test for catching up the snapshot with the changed rows and the deletes")
+    @Test
+    public void givenChangesSinceSnapshot_whenForEachPage_thenCaughtUp() throws IOException {
+
+        //given - precondition or setup
+        Instant snapshotChangedUntil = Employee.now().minus(Duration.ofHours(1));
+        try (EmployeeSnapshot.Writer writer = EmployeeSnapshot.writer(directory.resolve("employees.snapshot"))) {
+            writer.add(employee(1L, "Joan", "Roa", "setoba1192@gmail.com"));
+            writer.add(employee(3L, "Sebastian", "Roa", "sebastian@hotmail.com"));
+            writer.add(employee(5L, "Ramesh", "Fadatare", "ramesh@gmail.com"));
+            writer.finish(snapshotChangedUntil);
+        }
+        Employee updated = employee(1L, "Joan", "Ortega", "setoba1192@gmail.com");
+        Employee lateInsert = employee(2L, "Paula", "Roa", "paula@gmail.com");
+        Employee updatedThenDeleted = employee(3L, "Sebastian", "Rojas", "sebastian@hotmail.com");
+        Employee created = employee(6L, "Priya", "Sharma", "priya@gmail.com");
+        given(employeeRepository.findChangedAfter(eq(snapshotChangedUntil), eq(Long.MAX_VALUE), any(Instant.class),
+                eq(PageRequest.of(0, 1000)))).willReturn(List.of(created, updatedThenDeleted, lateInsert, updated));
+        EmployeeChange tombstone = EmployeeChange.builder()
+                .type(EmployeeChange.Type.DELETED)
+                .employeeId(3L)
+                .createdAt(snapshotChangedUntil.plusSeconds(60))
+                .build();
+        given(changeRepository.findAfter(eq(EmployeeChange.Type.DELETED), eq(snapshotChangedUntil), eq(Long.MAX_VALUE),
+                any(Instant.class), eq(PageRequest.of(0, 1000)))).willReturn(List.of(tombstone));
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> loaded = new ArrayList<>();
+        dataset(Duration.ofDays(1), Duration.ofDays(7)).forEachPage(loaded::addAll);
+
+        //then - verify the output
+        assertThat(loaded).extracting(Employee::getId).containsExactly(1L, 2L, 5L, 6L);
+        assertThat(loaded.get(0).getLastName()).isEqualTo("Ortega");
+        verify(employeeRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+    }
+
+    // Junit test for writing snapshots without the in memory store
+    @DisplayName("Junit test for writing the next snapshot from the previous one and the changes since")
+    @Test
+    public void givenPreviousSnapshot_whenWriteSnapshot_thenOnlyChangesRead() throws IOException {
+
+        //given - precondition or setup
+        Employee joan = employee(1L, "Joan", "Roa", "setoba1192@gmail.com");
+        Employee sebastian = employee(2L, "Sebastian", "Roa", "sebastian@hotmail.com");
+        Employee ramesh = employee(3L, "Ramesh", "Fadatare", "ramesh@gmail.com");
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000)))
+                .willReturn(List.of(joan, sebastian));
+        given(inMemoryEmployeeService.getIfAvailable()).willReturn(null);
+        EmployeeDataset dataset = dataset(Duration.ofDays(1), Duration.ofDays(7));
+        EmployeeSnapshot.Header first = dataset.writeSnapshot();
+
+        given(employeeRepository.findChangedAfter(eq(first.changedUntil()), eq(Long.MAX_VALUE), any(Instant.class),
+                eq(PageRequest.of(0, 1000)))).willReturn(List.of(ramesh));
+        EmployeeChange tombstone = EmployeeChange.builder()
+                .type(EmployeeChange.Type.DELETED)
+                .employeeId(1L)
+                .createdAt(first.changedUntil().plusMillis(1))
+                .build();
+        given(changeRepository.findAfter(eq(EmployeeChange.Type.DELETED), eq(first.changedUntil()), eq(Long.MAX_VALUE),
+                any(Instant.class), eq(PageRequest.of(0, 1000)))).willReturn(List.of(tombstone));
+
+        //when - action or the behavior that we are goint to test
+        EmployeeSnapshot.Header second = dataset.writeSnapshot();
+
+        //then - verify the output
+        assertThat(second.count()).isEqualTo(2);
+        assertThat(second.changedUntil()).isAfterOrEqualTo(first.changedUntil());
+        assertThat(EmployeeSnapshot.open(directory.resolve("employees.snapshot")))
+                .extracting(Employee::getId).containsExactly(2L, 3L);
+        // only the first snapshot scanned the table
+        verify(employeeRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000));
+    }
+
+    // Junit test for writing snapshots from the in memory store
+    @DisplayName("Junit test for writing the snapshot from the loaded store up to the change follower watermark")
+    @Test
+    public void givenLoadedStore_whenWriteSnapshot_thenFollowerWatermark() throws IOException {
+
+        //given - precondition or setup
+        InMemoryEmployeeService store = mock(InMemoryEmployeeService.class);
+        Employee joan = employee(1L, "Joan", "Roa", "setoba1192@gmail.com");
+        Instant watermark = Employee.now().minus(Duration.ofSeconds(30));
+        given(inMemoryEmployeeService.getIfAvailable()).willReturn(store);
+        given(store.isLoaded()).willReturn(true);
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(joan);
+            return null;
+        }).given(store).forEachEmployee(any());
+        given(changeFollower.watermark()).willReturn(watermark);
+
+        //when - action or the behavior that we are goint to test
+        EmployeeSnapshot.Header header = dataset(Duration.ofDays(1), Duration.ofDays(7)).writeSnapshot();
+
+        //then - verify the output
+        assertThat(header.changedUntil()).isEqualTo(watermark);
+        assertThat(header.count()).isEqualTo(1);
+        verifyNoInteractions(employeeRepository, changeRepository);
+    }
+
+    private EmployeeDataset dataset(Duration maxAge, Duration changeRetention) {
+        EmployeeDataset dataset = new EmployeeDataset(employeeRepository, changeRepository, writeTracker,
+                inMemoryEmployeeService, changeFollower, true, directory.resolve("employees.snapshot"), Duration.ofMinutes(10), maxAge,
+                changeRetention);
+        datasets.add(dataset);
+        return dataset;
+    }
+
+    private static Employee employee(long id, String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package net.javaguides.springboot.service;
+
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.config.CacheConfig;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeBatchLoader;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.EmployeeSuggestionIndex;
+import net.javaguides.springboot.service.impl.EmployeeWriteTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the caching annotations of {@link EmployeeServiceImpl} against the real cache configuration.
+ */
+@SpringJUnitConfig(classes = {CacheConfig.class, EmployeeServiceImpl.class, EmployeeServiceCacheTest.ConversionConfig.class})
+public class EmployeeServiceCacheTest {
+
+    /**
+     * Converts the {@code Duration} settings of {@link CacheConfig} as Spring Boot does, a plain context has no
+     * conversion service.
+     */
+    @Configuration
+    static class ConversionConfig {
+
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+    }
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private EmployeeBatchLoader employeeBatchLoader;
+
+    @MockBean
+    private EmployeeSuggestionIndex employeeSuggestionIndex;
+
+    @MockBean
+    private EmployeeWriteTracker employeeWriteTracker;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).clear();
+
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+    }
+
+    // Junit test for cached getEmployeeById
+    @DisplayName("Junit test for cached getEmployeeById method")
+    @Test
+    public void givenCachedEmployee_whenGetEmployeeById_thenRepositoryIsCalledOnce() {
+
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> first = employeeService.getEmployeeById(1L);
+        Optional<Employee> second = employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        assertThat(first).contains(employee);
+        assertThat(second).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    // Junit test for cached not found lookups
+    @DisplayName("Junit test for cached not found getEmployeeById method")
+    @Test
+    public void givenMissingEmployee_whenGetEmployeeById_thenNotFoundIsCached() {
+
+        //given - precondition or setup
+        given(employeeRepository.findById(2L)).willReturn(Optional.empty());
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> first = employeeService.getEmployeeById(2L);
+        Optional<Employee> second = employeeService.getEmployeeById(2L);
+
+        //then - verify the output
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        verify(employeeRepository, times(1)).findById(2L);
+    }
+
+    // Junit test for cache update and eviction on writes
+    @DisplayName("Junit test for cache invalidation on update and delete")
+    @Test
+    public void givenCachedEmployee_whenUpdateAndDelete_thenCacheIsRefreshed() {
+
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+
+        Employee updatedEmployee = Employee.builder()
+                .id(1L)
+                .firstName("Sebas")
+                .lastName("Roa")
+                .email("setoba1192@hotmail.com")
+                .build();
+        given(employeeRepository.saveAndFlush(updatedEmployee)).willReturn(updatedEmployee);
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(1);
+
+        //when - action or the behavior that we are goint to test
+        employeeService.updateEmployee(updatedEmployee);
+        Optional<Employee> afterUpdate = employeeService.getEmployeeById(1L);
+
+        employeeService.deleteEmployee(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+        Optional<Employee> afterDelete = employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        assertThat(afterUpdate).contains(updatedEmployee);
+        assertThat(afterDelete).isEmpty();
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+}
@@ -1,9 +1,18 @@
 package net.javaguides.springboot.service;
 
+import jakarta.persistence.EntityManager;
+import net.javaguides.springboot.dto.CursorPage;
+import net.javaguides.springboot.dto.EmployeeSearchCriteria;
+import net.javaguides.springboot.dto.MultiGetResult;
+import net.javaguides.springboot.exception.BadRequestException;
 import net.javaguides.springboot.exception.ResourceNotFoundException;
 import net.javaguides.springboot.model.Employee;
 import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeBatchLoader;
 import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.EmployeeSuggestionIndex;
+import net.javaguides.springboot.service.impl.EmployeeWriteTracker;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,15 +21,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +45,21 @@ public class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EmployeeBatchLoader employeeBatchLoader;
+
+    @Mock
+    private EmployeeSuggestionIndex employeeSuggestionIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EmployeeWriteTracker writeTracker;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -53,10 +84,7 @@ public class EmployeeServiceTest {
 
         //given - precondition or setup (moved to setup method)
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee))
+        given(employeeRepository.saveAndFlush(employee))
                 .willReturn(employee);
 
         //when - action or the behavior that we are goint to test
@@ -71,8 +99,8 @@ public class EmployeeServiceTest {
     @Test
     public void givenExistingEmail_whenSaveEmployee_thenThrowsException() {
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(duplicateEmailViolation());
 
         // when
         Assertions.assertThrows(ResourceNotFoundException.class, () -> {
@@ -80,7 +108,85 @@ public class EmployeeServiceTest {
         });
 
         // then
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
+    // Junit test for saveEmployee method with a violation other than the email constraint
+    @DisplayName("Junit test for saveEmployee method rethrowing other integrity violations")
+    @Test
+    public void givenOtherIntegrityViolation_whenSaveEmployee_thenRethrowsIt() {
+
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("not null",
+                        new ConstraintViolationException("not null", new SQLException(), null)));
+
+        // when - then
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+    }
+
+    // Junit test for saveEmployees method
+    @DisplayName("Junit test for saveEmployees method")
+    @Test
+    public void givenEmployeesList_whenSaveEmployees_thenReturnSavedEmployees() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build();
+        List<Employee> employees = List.of(employee, employee1);
+
+        given(employeeRepository.saveAll(employees))
+                .willReturn(employees);
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+
+        //then - verify the output
+        assertThat(savedEmployees).containsExactly(employee, employee1);
+        verify(employeeRepository, times(1)).flush();
+        verify(entityManager, times(1)).clear();
+    }
+
+    // Junit test for saveEmployees method with an email that is already stored
+    @DisplayName("Junit test for saveEmployees method with existing email")
+    @Test
+    public void givenExistingEmail_whenSaveEmployees_thenThrowsException() {
+
+        //given - precondition or setup
+        willThrow(duplicateEmailViolation()).given(employeeRepository).flush();
+
+        // when
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.saveEmployees(List.of(employee));
+        });
+
+        // then
+        verify(entityManager, never()).clear();
+    }
+
+    // Junit test for saveEmployees method with a repeated email
+    @DisplayName("Junit test for saveEmployees method wich throw exception")
+    @Test
+    public void givenRepeatedEmail_whenSaveEmployees_thenThrowsException() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email(employee.getEmail())
+                .build();
+
+        // when
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.saveEmployees(List.of(employee, employee1));
+        });
+
+        // then
+        verify(employeeRepository, never()).saveAll(any());
     }
 
     // Junit test for method getAllEmployees
@@ -122,6 +228,129 @@ public class EmployeeServiceTest {
         assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    // Junit test for method getEmployeesPage
+    @DisplayName("Junit test for method getEmployeesPage")
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployeesPage_thenReturnPageWithNextCursor() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(employee, employee1));
+
+        //when - action or the behavior that we are goint to test
+        CursorPage<Employee> page = employeeService.getEmployeesPage(null, 1);
+
+        //then - verify the output
+        assertThat(page.getItems()).containsExactly(employee);
+        assertThat(page.getNext()).isNotNull();
+
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 2)))
+                .willReturn(List.of(employee1));
+
+        CursorPage<Employee> lastPage = employeeService.getEmployeesPage(page.getNext(), 1);
+
+        assertThat(lastPage.getItems()).containsExactly(employee1);
+        assertThat(lastPage.getNext()).isNull();
+    }
+
+    // Junit test for method getEmployeesPage with a limit above the maximum
+    @DisplayName("Junit test for method getEmployeesPage bounding the page size")
+    @Test
+    public void givenLimitAboveMaximum_whenGetEmployeesPage_thenUseMaximumPageSize() {
+
+        //given - precondition or setup
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L,
+                PageRequest.of(0, EmployeeServiceImpl.MAX_PAGE_SIZE + 1)))
+                .willReturn(Collections.emptyList());
+
+        //when - action or the behavior that we are goint to test
+        CursorPage<Employee> page = employeeService.getEmployeesPage("", 1_000_000);
+
+        //then - verify the output
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getNext()).isNull();
+    }
+
+    // Junit test for method getEmployeesPage with a malformed cursor
+    @DisplayName("Junit test for method getEmployeesPage with invalid cursor")
+    @Test
+    public void givenInvalidCursor_whenGetEmployeesPage_thenThrowsException() {
+
+        Assertions.assertThrows(BadRequestException.class, () -> {
+            employeeService.getEmployeesPage("not a cursor", 10);
+        });
+
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // Junit test for method searchEmployees
+    @DisplayName("Junit test for method searchEmployees")
+    @Test
+    public void givenLastNamePrefix_whenSearchEmployees_thenReturnPage() {
+
+        //given - precondition or setup
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria(null, "Ro*", null);
+        given(employeeRepository.findPage(any(), eq(EmployeeServiceImpl.DEFAULT_PAGE_SIZE + 1)))
+                .willReturn(List.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        CursorPage<Employee> page = employeeService.searchEmployees(criteria, null, 0);
+
+        //then - verify the output
+        assertThat(page.getItems()).containsExactly(employee);
+        assertThat(page.getNext()).isNull();
+    }
+
+    // Junit test for method searchEmployees with filters that cannot use an index
+    @DisplayName("Junit test for method searchEmployees rejecting unindexed filters")
+    @Test
+    public void givenUnindexedFilters_whenSearchEmployees_thenThrowsException() {
+
+        //given - precondition or setup
+        EmployeeSearchCriteria firstNameOnly = new EmployeeSearchCriteria("Joan", null, null);
+        EmployeeSearchCriteria suffix = new EmployeeSearchCriteria(null, "*oa", null);
+        EmployeeSearchCriteria none = new EmployeeSearchCriteria();
+
+        //when - action or the behavior that we are goint to test
+        //then - verify the output
+        Assertions.assertThrows(BadRequestException.class, () -> employeeService.searchEmployees(firstNameOnly, null, 10));
+        Assertions.assertThrows(BadRequestException.class, () -> employeeService.searchEmployees(suffix, null, 10));
+        Assertions.assertThrows(BadRequestException.class, () -> employeeService.searchEmployees(none, null, 10));
+        verifyNoInteractions(employeeRepository);
+    }
+
+    // Junit test for method exportEmployees
+    @DisplayName("Junit test for method exportEmployees")
+    @Test
+    public void givenEmployeesStream_whenExportEmployees_thenConsumeAndDetachEachEmployee() {
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee1));
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> exported = new ArrayList<>();
+        employeeService.exportEmployees(exported::add);
+
+        //then - verify the output
+        assertThat(exported).containsExactly(employee, employee1);
+        verify(entityManager).detach(employee);
+        verify(entityManager).detach(employee1);
+    }
+
     // Junit test for getEmployeeById
     @DisplayName("Junit test for getEmployeeById method")
     @Test
@@ -138,13 +367,71 @@ public class EmployeeServiceTest {
         assertThat(foundEmployee).isNotNull();
     }
 
+    // Junit test for getEmployeeById through the batch loader
+    @DisplayName("Junit test for getEmployeeById method with batch loader enabled")
+    @Test
+    public void givenBatchLoaderEnabled_whenGetEmployeeById_thenLoadThroughBatchLoader(){
+
+        //given - precondition or setup
+        given(employeeBatchLoader.isEnabled()).willReturn(true);
+        given(employeeBatchLoader.get(employee.getId())).willReturn(Optional.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> foundEmployee = employeeService.getEmployeeById(employee.getId());
+
+        //then - verify the output
+        assertThat(foundEmployee).contains(employee);
+        verify(employeeRepository, never()).findById(any(Long.class));
+    }
+
+    // Junit test for getEmployeeByEmail
+    @DisplayName("Junit test for getEmployeeByEmail method")
+    @Test
+    public void givenEmployeeEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject(){
+
+        //given - precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail()))
+                .willReturn(Optional.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> foundEmployee = employeeService.getEmployeeByEmail(employee.getEmail());
+
+        //then - verify the output
+        assertThat(foundEmployee).contains(employee);
+        assertThat(employeeService.getCollapsedEmailLookups()).isZero();
+    }
+
+    // Junit test for getEmployeesByIds
+    @DisplayName("Junit test for getEmployeesByIds method")
+    @Test
+    public void givenIdsList_whenGetEmployeesByIds_thenReturnEmployeesInRequestOrder(){
+
+        //given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Sebastian")
+                .lastName("Sanchez")
+                .email("setoba1192@hotmail.com")
+                .build();
+
+        given(employeeRepository.findAllById(List.of(2L, 3L, 1L)))
+                .willReturn(List.of(employee, employee1));
+
+        //when - action or the behavior that we are goint to test
+        MultiGetResult result = employeeService.getEmployeesByIds(List.of(2L, 3L, 1L, 2L));
+
+        //then - verify the output
+        assertThat(result.getEmployees()).containsExactly(employee1, employee);
+        assertThat(result.getNotFound()).containsExactly(3L);
+    }
+
     // Junit test for updateEmployee method
     @DisplayName("Junit test for updateEmployee method")
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee(){
 
         //given - precondition or setup
-        given(employeeRepository.save(employee))
+        given(employeeRepository.saveAndFlush(employee))
                 .willReturn(employee);
 
         employee.setFirstName("Sebas");
@@ -158,6 +445,116 @@ public class EmployeeServiceTest {
         assertThat(updatedEmployee.getFirstName()).isEqualTo("Sebas");
     }
 
+    // Junit test for updateEmployee method with an email that is already stored
+    @DisplayName("Junit test for updateEmployee method with existing email")
+    @Test
+    public void givenExistingEmail_whenUpdateEmployee_thenThrowsException() {
+
+        //given - precondition or setup
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(duplicateEmailViolation());
+
+        // when
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.updateEmployee(employee);
+        });
+
+        // then
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // Junit test for replaceEmployee method
+    @DisplayName("Junit test for replaceEmployee method on the current row")
+    @Test
+    public void givenCurrentRow_whenReplaceEmployee_thenCurrentRowUpdated(){
+
+        //given - precondition or setup
+        employee.setVersion(7L);
+        Employee changes = Employee.builder()
+                .firstName("Sebas")
+                .lastName("Roa")
+                .email("setoba1192@hotmail.com")
+                .version(2L)
+                .build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> updatedEmployee = employeeService.replaceEmployee(1L, changes);
+
+        //then - verify the output, the version of the row read is kept, not the one sent
+        assertThat(updatedEmployee).contains(employee);
+        assertThat(employee.getFirstName()).isEqualTo("Sebas");
+        assertThat(employee.getEmail()).isEqualTo("setoba1192@hotmail.com");
+        assertThat(employee.getVersion()).isEqualTo(7L);
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.updated(employee));
+    }
+
+    // Junit test for replaceEmployee method on a missing employee
+    @DisplayName("Junit test for replaceEmployee method when employee not found")
+    @Test
+    public void givenMissingEmployee_whenReplaceEmployee_thenEmpty(){
+
+        //given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> updatedEmployee = employeeService.replaceEmployee(1L, employee);
+
+        //then - verify the output
+        assertThat(updatedEmployee).isEmpty();
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    // Junit test for patchEmployee method
+    @DisplayName("Junit test for patchEmployee method")
+    @Test
+    public void givenChangedFields_whenPatchEmployee_thenReturnTrue(){
+
+        //given - precondition or setup
+        Employee changes = Employee.builder()
+                .email("setoba1192@hotmail.com")
+                .build();
+        given(employeeRepository.updateNonNullFields(1L, changes)).willReturn(1);
+
+        //when - action or the behavior that we are goint to test
+        boolean patched = employeeService.patchEmployee(1L, changes);
+
+        //then - verify the output
+        assertThat(patched).isTrue();
+        verify(employeeRepository, never()).findById(any(Long.class));
+    }
+
+    // Junit test for patchEmployee method on a missing employee
+    @DisplayName("Junit test for patchEmployee method when employee not found")
+    @Test
+    public void givenMissingEmployee_whenPatchEmployee_thenReturnFalse(){
+
+        //given - precondition or setup
+        Employee changes = Employee.builder()
+                .firstName("Sebas")
+                .build();
+        given(employeeRepository.updateNonNullFields(1L, changes)).willReturn(0);
+
+        //when - action or the behavior that we are goint to test
+        boolean patched = employeeService.patchEmployee(1L, changes);
+
+        //then - verify the output
+        assertThat(patched).isFalse();
+    }
+
+    // Junit test for patchEmployee method without changes
+    @DisplayName("Junit test for patchEmployee method without changes")
+    @Test
+    public void givenNoChangedFields_whenPatchEmployee_thenThrowsException(){
+
+        Assertions.assertThrows(BadRequestException.class, () -> {
+            employeeService.patchEmployee(1L, new Employee());
+        });
+
+        verifyNoInteractions(employeeRepository);
+    }
+
     // Junit test for deleteEmployee method
     @DisplayName("Junit test for deleteEmployee method")
     @Test
@@ -165,13 +562,79 @@ public class EmployeeServiceTest {
 
         //given - precondition or setup
         long employeeId = 1l;
-        willDoNothing().given(employeeRepository).deleteById(employeeId);
+        given(employeeRepository.deleteEmployeeById(employeeId)).willReturn(1);
 
         //when - action or the behavior that we are goint to test
         employeeService.deleteEmployee(employeeId);
 
         //then - verify the output
-        verify(employeeRepository, times(1)).deleteById(employeeId);
+        verify(employeeRepository, times(1)).deleteEmployeeById(employeeId);
+        verify(employeeRepository, never()).findById(employeeId);
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(employeeId));
+    }
+
+    // Junit test for deleteEmployee method on a missing employee
+    @DisplayName("Junit test for deleteEmployee method when employee not found")
+    @Test
+    public void givenMissingEmployee_whenDeleteEmployee_thenThrowsException(){
+
+        //given - precondition or setup
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(0);
+
+        // when - then
+        Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.deleteEmployee(1L);
+        });
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // Junit test for deleteEmployees method
+    @DisplayName("Junit test for deleteEmployees method")
+    @Test
+    public void givenIdsList_whenDeleteEmployees_thenDeleteInChunks(){
+
+        //given - precondition or setup
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1; id++)
+            ids.add(id);
+        ids.add(1L);
+
+        List<Long> firstChunk = ids.subList(0, EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+        given(employeeRepository.findExistingIds(firstChunk)).willReturn(firstChunk);
+        given(employeeRepository.deleteEmployeesByIds(firstChunk)).willReturn(EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+        given(employeeRepository.findExistingIds(List.of(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1L)))
+                .willReturn(List.of());
+
+        //when - action or the behavior that we are goint to test
+        int deleted = employeeService.deleteEmployees(ids);
+
+        //then - verify the output
+        assertThat(deleted).isEqualTo(EmployeeServiceImpl.DELETE_CHUNK_SIZE);
+        verify(employeeRepository, times(1)).deleteEmployeesByIds(any());
+        verify(eventPublisher, times(EmployeeServiceImpl.DELETE_CHUNK_SIZE)).publishEvent(any(EmployeeChangedEvent.class));
+        verify(eventPublisher, never()).publishEvent(EmployeeChangedEvent.deleted(EmployeeServiceImpl.DELETE_CHUNK_SIZE + 1L));
     }
 
+    // Junit test for deleteEmployeesByEmailDomain method
+    @DisplayName("Junit test for deleteEmployeesByEmailDomain method")
+    @Test
+    public void givenEmailDomain_whenDeleteEmployeesByEmailDomain_thenDeleteMatchingIds(){
+
+        //given - precondition or setup
+        given(employeeRepository.findIdsByEmailLike("%@gmail.com", 0L,
+                PageRequest.of(0, EmployeeServiceImpl.DELETE_CHUNK_SIZE)))
+                .willReturn(List.of(1L, 5L));
+        given(employeeRepository.deleteEmployeesByIds(List.of(1L, 5L))).willReturn(2);
+
+        //when - action or the behavior that we are goint to test
+        int deleted = employeeService.deleteEmployeesByEmailDomain("gmail.com");
+
+        //then - verify the output
+        assertThat(deleted).isEqualTo(2);
+    }
+
+    private static DataIntegrityViolationException duplicateEmailViolation() {
+        return new DataIntegrityViolationException("duplicate email",
+                new ConstraintViolationException("duplicate email", new SQLException(), Employee.EMAIL_CONSTRAINT));
+    }
 }
@@ -0,0 +1,96 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    // Junit test for writing and reading back a snapshot
+    @DisplayName("Junit test for an employee snapshot round trip")
+    @Test
+    public void givenEmployees_whenWriteAndOpen_thenSameEmployees() throws IOException {
+
+        //given - precondition or setup
+        Path file = directory.resolve("employees.snapshot");
+        List<Employee> employees = List.of(
+                employee(1L, "Joan", "Roa", "setoba1192@gmail.com"),
+                employee(2L, "Sebastian", "Roa", "sebastian@hotmail.com"),
+                employee(7L, "Ramesh", null, "ramesh@gmail.com"));
+        employees.get(1).setVersion(3L);
+        employees.get(1).setCreatedAt(Instant.parse("2026-10-16T08:00:00.123456Z"));
+        employees.get(1).setUpdatedAt(Instant.parse("2026-10-17T09:30:00.654321Z"));
+
+        //when - action or the behavior that we are goint to test
+        EmployeeSnapshot.Header written;
+        try (EmployeeSnapshot.Writer writer = EmployeeSnapshot.writer(file)) {
+            for (Employee employee : employees)
+                writer.add(employee);
+            written = writer.finish(Instant.parse("2026-10-17T10:00:00.000001Z"));
+        }
+        EmployeeSnapshot snapshot = EmployeeSnapshot.open(file);
+        List<Employee> read = new ArrayList<>();
+        snapshot.forEach(read::add);
+
+        //then - verify the output
+        assertThat(snapshot.header()).isEqualTo(written);
+        assertThat(snapshot.header().version()).isEqualTo(EmployeeSnapshot.VERSION);
+        assertThat(snapshot.header().changedUntil()).isEqualTo(Instant.parse("2026-10-17T10:00:00.000001Z"));
+        assertThat(snapshot.header().count()).isEqualTo(3);
+        assertThat(read).usingRecursiveFieldByFieldElementComparator().isEqualTo(employees);
+    }
+
+    // Junit test for rejecting damaged and unfinished snapshots
+    @DisplayName("Junit test for rejecting corrupted, unfinished and out of order snapshots")
+    @Test
+    public void givenDamagedSnapshot_whenOpen_thenThrowsIOException() throws IOException {
+
+        //given - precondition or setup
+        Path corrupted = directory.resolve("corrupted.snapshot");
+        try (EmployeeSnapshot.Writer writer = EmployeeSnapshot.writer(corrupted)) {
+            writer.add(employee(1L, "Joan", "Roa", "setoba1192@gmail.com"));
+            writer.finish(Instant.now());
+        }
+        byte[] bytes = Files.readAllBytes(corrupted);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(corrupted, bytes);
+
+        Path unfinished = directory.resolve("unfinished.snapshot");
+        try (EmployeeSnapshot.Writer writer = EmployeeSnapshot.writer(unfinished)) {
+            writer.add(employee(1L, "Joan", "Roa", "setoba1192@gmail.com"));
+        }
+
+        // when - then
+        Assertions.assertThrows(IOException.class, () -> EmployeeSnapshot.open(corrupted));
+        Assertions.assertThrows(IOException.class, () -> EmployeeSnapshot.open(unfinished));
+        try (EmployeeSnapshot.Writer writer = EmployeeSnapshot.writer(directory.resolve("unordered.snapshot"))) {
+            writer.add(employee(2L, "Joan", "Roa", "setoba1192@gmail.com"));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> writer.add(employee(1L, "Sebastian", "Roa", "sebastian@hotmail.com")));
+        }
+    }
+
+    private static Employee employee(long id, String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.service.impl.EmployeeStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmployeeStoreTest {
+
+    // Junit test for reading back stored employees
+    @DisplayName("Junit test for put, get and getAll on the employee store")
+    @Test
+    public void givenStoredEmployees_whenGet_thenReturnCopies() {
+
+        //given - precondition or setup
+        EmployeeStore store = new EmployeeStore();
+        Employee sebastian = employee(2L, "Sebastian", "Roa", "sebastian@hotmail.com");
+        sebastian.setVersion(4L);
+        sebastian.setCreatedAt(Instant.parse("2026-10-16T08:00:00.123456Z"));
+        sebastian.setUpdatedAt(Instant.parse("2026-10-17T09:30:00.654321Z"));
+        store.put(sebastian);
+        store.put(employee(1L, "Joan", "Roa", "setoba1192@gmail.com"));
+
+        //when - action or the behavior that we are goint to test
+        Employee joan = store.get(1L);
+        joan.setFirstName("Paula");
+        List<Employee> all = store.getAll();
+
+        //then - verify the output
+        assertThat(store.get(1L).getFirstName()).isEqualTo("Joan");
+        assertThat(store.get(3L)).isNull();
+        assertThat(all).extracting(Employee::getId).containsExactly(1L, 2L);
+        assertThat(all.get(1)).usingRecursiveComparison().isEqualTo(sebastian);
+        assertThat(all.get(0).getCreatedAt()).isNull();
+        // "Roa" is stored once for both employees
+        assertThat(store.distinctNames()).isEqualTo(3);
+    }
+
+    // Junit test for versioned puts
+    @DisplayName("Junit test for putIfNewer keeping the stored employee when it is not older")
+    @Test
+    public void givenStoredVersion_whenPutIfNewer_thenOnlyNewerVersionsStored() {
+
+        //given - precondition or setup
+        EmployeeStore store = new EmployeeStore();
+        Employee joan = employee(1L, "Joan", "Roa", "setoba1192@gmail.com");
+        joan.setVersion(2L);
+        store.put(joan);
+        Employee older = employee(1L, "Joan", "Rojas", "setoba1192@gmail.com");
+        older.setVersion(1L);
+        Employee same = employee(1L, "Joan", "Sanchez", "setoba1192@gmail.com");
+        same.setVersion(2L);
+        Employee newer = employee(1L, "Joan", "Ortega", "setoba1192@gmail.com");
+        newer.setVersion(3L);
+
+        //when - action or the behavior that we are goint to test
+        boolean olderStored = store.putIfNewer(older);
+        boolean sameStored = store.putIfNewer(same);
+        boolean newerStored = store.putIfNewer(newer);
+        boolean createdStored = store.putIfNewer(employee(2L, "Sebastian", "Roa", "sebastian@hotmail.com"));
+
+        //then - verify the output
+        assertThat(olderStored).isFalse();
+        assertThat(sameStored).isFalse();
+        assertThat(newerStored).isTrue();
+        assertThat(createdStored).isTrue();
+        assertThat(store.get(1L).getLastName()).isEqualTo("Ortega");
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    // Junit test for the open addressing table under inserts, updates and removals
+    @DisplayName("Junit test for the employee store against a HashMap under random changes")
+    @Test
+    public void givenRandomChanges_whenPutAndRemove_thenSameContentAsHashMap() {
+
+        //given - precondition or setup
+        EmployeeStore store = new EmployeeStore();
+        Map<Long, String> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42L);
+
+        //when - action or the behavior that we are goint to test
+        for (int i = 0; i < 200_000; i++) {
+            long id = 1 + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertThat(store.remove(id)).isEqualTo(expected.remove(id) != null);
+            } else {
+                String email = "employee" + i + "@example.com";
+                store.put(employee(id, "First" + id % 10, "Last" + id % 20, email));
+                expected.put(id, email);
+            }
+        }
+
+        //then - verify the output
+        assertThat(store.size()).isEqualTo(expected.size());
+        for (long id = 1; id <= 5000; id++) {
+            Employee employee = store.get(id);
+            if (expected.containsKey(id))
+                assertThat(employee.getEmail()).isEqualTo(expected.get(id));
+            else
+                assertThat(employee).isNull();
+        }
+        assertThat(store.getAll()).extracting(Employee::getId).isSorted().hasSize(expected.size());
+        assertThat(store.distinctNames()).isEqualTo(30);
+    }
+
+    private static Employee employee(long id, String firstName, String lastName, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build();
+    }
+}
@@ -0,0 +1,194 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeDataset;
+import net.javaguides.springboot.service.impl.EmployeeSuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSuggestionIndexTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeDataset employeeDataset;
+
+    @InjectMocks
+    private EmployeeSuggestionIndex suggestionIndex;
+
+    private Employee joan;
+
+    private Employee sebastian;
+
+    private Employee ramesh;
+
+    @BeforeEach
+    public void setup() {
+        joan = Employee.builder().id(1L).firstName("Joan").lastName("Roa").email("setoba1192@gmail.com").build();
+        sebastian = Employee.builder().id(2L).firstName("Sebastian").lastName("Rojas").email("sebastian@hotmail.com").build();
+        ramesh = Employee.builder().id(3L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+    }
+
+    // Junit test for building the index at startup
+    @DisplayName("Junit test for building the suggestion index from the employee dataset")
+    @Test
+    public void givenEmployeesInDataset_whenBuild_thenAllIndexed() {
+
+        //given - precondition or setup
+        willAnswer(invocation -> {
+            Consumer<List<Employee>> consumer = invocation.getArgument(0);
+            consumer.accept(List.of(joan, sebastian));
+            consumer.accept(List.of(ramesh));
+            return null;
+        }).given(employeeDataset).forEachPage(any());
+
+        //when - action or the behavior that we are goint to test
+        suggestionIndex.build();
+
+        //then - verify the output
+        assertThat(suggestionIndex.size()).isEqualTo(3);
+        assertThat(suggestionIndex.suggest("ram", 10)).extracting(Employee::getId).containsExactly(3L);
+    }
+
+    // Junit test for ranking suggestions
+    @DisplayName("Junit test for suggestions ranked by exact, prefix and inner matches")
+    @Test
+    public void givenIndexedEmployees_whenSuggest_thenRankedMatches() {
+
+        //given - precondition or setup
+        index(joan, sebastian, ramesh);
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> prefix = suggestionIndex.suggest("ro", 10);
+        List<Employee> exactFirst = suggestionIndex.suggest("roa", 10);
+        List<Employee> inner = suggestionIndex.suggest("ast", 10);
+        List<Employee> twoTerms = suggestionIndex.suggest("joan RO", 10);
+        List<Employee> email = suggestionIndex.suggest("gmail", 10);
+
+        //then - verify the output
+        assertThat(prefix).extracting(Employee::getId).containsExactly(1L, 2L);
+        assertThat(exactFirst).extracting(Employee::getId).containsExactly(1L);
+        assertThat(inner).extracting(Employee::getId).containsExactly(2L);
+        assertThat(twoTerms).extracting(Employee::getId).containsExactly(1L);
+        assertThat(email).extracting(Employee::getId).containsExactly(1L, 3L);
+        assertThat(suggestionIndex.suggest("xyz", 10)).isEmpty();
+        assertThat(suggestionIndex.suggest(" ", 10)).isEmpty();
+    }
+
+    // Junit test for keeping the index current
+    @DisplayName("Junit test for updating the suggestion index on employee changes")
+    @Test
+    public void givenIndexedEmployees_whenChangedAndDeleted_thenIndexFollows() {
+
+        //given - precondition or setup
+        index(joan, sebastian);
+        Employee renamed = Employee.builder().id(2L).firstName("Sebastian").lastName("Sanchez").email("sebastian@hotmail.com").version(1L).build();
+        Employee patched = Employee.builder().id(1L).firstName("Joan").lastName("Ortega").email("setoba1192@gmail.com").version(1L).build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(patched));
+
+        //when - action or the behavior that we are goint to test
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.updated(renamed));
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.patched(1L));
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.created(ramesh));
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(3L));
+
+        //then - verify the output
+        assertThat(suggestionIndex.suggest("rojas", 10)).isEmpty();
+        assertThat(suggestionIndex.suggest("sanchez", 10)).extracting(Employee::getId).containsExactly(2L);
+        assertThat(suggestionIndex.suggest("ortega", 10)).extracting(Employee::getLastName).containsExactly("Ortega");
+        assertThat(suggestionIndex.suggest("ramesh", 10)).isEmpty();
+        assertThat(suggestionIndex.size()).isEqualTo(2);
+    }
+
+    // Junit test for events arriving out of order
+    @DisplayName("Junit test for older versions and late updates of deleted employees not reaching the suggestion index")
+    @Test
+    public void givenOutOfOrderChanges_whenSuggest_thenNewestStateOnly() {
+
+        //given - precondition or setup
+        index(joan, sebastian);
+        Employee renamed = Employee.builder().id(1L).firstName("Joan").lastName("Ortega").email("setoba1192@gmail.com").version(2L).build();
+        Employee stale = Employee.builder().id(1L).firstName("Joan").lastName("Sanchez").email("setoba1192@gmail.com").version(1L).build();
+        Employee lateUpdate = Employee.builder().id(2L).firstName("Sebastian").lastName("Rojas").email("sebastian@hotmail.com").version(1L).build();
+
+        //when - action or the behavior that we are goint to test
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.updated(renamed));
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.updated(stale));
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(2L));
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.updated(lateUpdate));
+
+        //then - verify the output
+        assertThat(suggestionIndex.suggest("ortega", 10)).extracting(Employee::getId).containsExactly(1L);
+        assertThat(suggestionIndex.suggest("sanchez", 10)).isEmpty();
+        assertThat(suggestionIndex.suggest("sebastian", 10)).isEmpty();
+        assertThat(suggestionIndex.size()).isEqualTo(1);
+    }
+
+    // Junit test for suggestions carrying the version and timestamps
+    @DisplayName("Junit test for suggestions with the version and timestamps of the employee")
+    @Test
+    public void givenVersionedEmployee_whenSuggest_thenVersionAndTimestampsKept() {
+
+        //given - precondition or setup
+        joan.setVersion(4L);
+        joan.setCreatedAt(Instant.parse("2026-10-16T08:00:00.123456Z"));
+        joan.setUpdatedAt(Instant.parse("2026-10-17T09:30:00.654321Z"));
+        index(joan);
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> suggestions = suggestionIndex.suggest("joan", 10);
+
+        //then - verify the output, the same ETag as GET /api/employees/{id}
+        assertThat(suggestions).singleElement().usingRecursiveComparison().isEqualTo(joan);
+    }
+
+    // Junit test for reusing the document numbers of deleted employees
+    @DisplayName("Junit test for suggestions after many employees were created and deleted")
+    @Test
+    public void givenChurn_whenSuggest_thenOnlyCurrentEmployees() {
+
+        //given - precondition or setup
+        index(joan, sebastian, ramesh);
+        for (long id = 10L; id < 3000L; id++) {
+            index(Employee.builder().id(id).firstName("Temp").lastName("Roa" + id).email(id + "@gmail.com").build());
+            suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(id));
+        }
+        suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+        Employee joanna = Employee.builder().id(3000L).firstName("Joanna").lastName("Roa").email("joanna@gmail.com").build();
+        index(joanna);
+
+        //when - action or the behavior that we are goint to test
+        List<Employee> prefix = suggestionIndex.suggest("ro", 10);
+        List<Employee> temp = suggestionIndex.suggest("temp", 10);
+        List<Employee> joa = suggestionIndex.suggest("joa", 10);
+
+        //then - verify the output
+        assertThat(prefix).extracting(Employee::getId).containsExactly(2L, 3000L);
+        assertThat(temp).isEmpty();
+        assertThat(joa).extracting(Employee::getId).containsExactly(3000L);
+        assertThat(suggestionIndex.size()).isEqualTo(3);
+    }
+
+    private void index(Employee... employees) {
+        for (Employee employee : employees)
+            suggestionIndex.onEmployeeChanged(EmployeeChangedEvent.created(employee));
+    }
+}
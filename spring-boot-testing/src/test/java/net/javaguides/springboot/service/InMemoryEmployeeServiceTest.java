@@ -0,0 +1,217 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.dto.EmployeesVersion;
+import net.javaguides.springboot.model.Employee;
+import net.javaguides.springboot.repository.EmployeeRepository;
+import net.javaguides.springboot.service.impl.EmployeeDataset;
+import net.javaguides.springboot.service.impl.EmployeeServiceImpl;
+import net.javaguides.springboot.service.impl.InMemoryEmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryEmployeeServiceTest {
+
+    @Mock
+    private EmployeeServiceImpl delegate;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeDataset employeeDataset;
+
+    private InMemoryEmployeeService employeeService;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employeeService = new InMemoryEmployeeService(delegate, employeeRepository, employeeDataset, 16);
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Joan")
+                .lastName("Roa")
+                .email("setoba1192@gmail.com")
+                .build();
+    }
+
+    // Junit test for reads before the store is loaded
+    @DisplayName("Junit test for getEmployeeById going to the database until the store is loaded")
+    @Test
+    public void givenStoreNotLoaded_whenGetEmployeeById_thenDelegate() {
+
+        //given - precondition or setup
+        given(delegate.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> result = employeeService.getEmployeeById(1L);
+
+        //then - verify the output
+        assertThat(result).contains(employee);
+        assertThat(employeeService.isLoaded()).isFalse();
+    }
+
+    // Junit test for reads served from memory
+    @DisplayName("Junit test for getEmployeeById and getAllEmployees served from the loaded store")
+    @Test
+    public void givenLoadedStore_whenGetEmployees_thenNoDatabaseAccess() {
+
+        //given - precondition or setup
+        Employee sebastian = Employee.builder().id(2L).firstName("Sebastian").lastName("Roa").email("sebastian@hotmail.com").build();
+        givenDataset(List.of(employee, sebastian));
+        employeeService.load();
+
+        //when - action or the behavior that we are goint to test
+        Optional<Employee> found = employeeService.getEmployeeById(2L);
+        Optional<Employee> missing = employeeService.getEmployeeById(3L);
+        List<Employee> all = employeeService.getAllEmployees();
+
+        //then - verify the output
+        assertThat(found).map(Employee::getFirstName).contains("Sebastian");
+        assertThat(missing).isEmpty();
+        assertThat(all).extracting(Employee::getId).containsExactly(1L, 2L);
+        verify(delegate, never()).getEmployeeById(anyLong());
+        verify(delegate, never()).getAllEmployees();
+    }
+
+    // Junit test for write-through
+    @DisplayName("Junit test for writes going to the database and committed changes reaching the store")
+    @Test
+    public void givenLoadedStore_whenEmployeeChanged_thenStoreFollows() {
+
+        //given - precondition or setup
+        givenDataset(List.of(employee));
+        employeeService.load();
+        Employee patched = Employee.builder().id(1L).firstName("Joan").lastName("Ortega").email("setoba1192@gmail.com").version(1L).build();
+        Employee created = Employee.builder().id(5L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com").build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(patched));
+        given(delegate.saveEmployee(any(Employee.class))).willReturn(created);
+
+        //when - action or the behavior that we are goint to test
+        employeeService.saveEmployee(created);
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.created(created));
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.patched(1L));
+        employeeService.deleteEmployee(5L);
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.deleted(5L));
+
+        //then - verify the output
+        verify(delegate).saveEmployee(created);
+        verify(delegate).deleteEmployee(5L);
+        assertThat(employeeService.getEmployeeById(1L)).map(Employee::getLastName).contains("Ortega");
+        assertThat(employeeService.getEmployeeById(5L)).isEmpty();
+        assertThat(employeeService.size()).isEqualTo(1);
+    }
+
+    // Junit test for events arriving out of order
+    @DisplayName("Junit test for an older version of an employee not replacing the stored one")
+    @Test
+    public void givenNewerVersionStored_whenOlderVersionChanged_thenIgnored() {
+
+        //given - precondition or setup
+        givenDataset(List.of(employee));
+        employeeService.load();
+        Employee renamed = Employee.builder().id(1L).firstName("Joan").lastName("Ortega").email("setoba1192@gmail.com").version(2L).build();
+        Employee stale = Employee.builder().id(1L).firstName("Joan").lastName("Rojas").email("setoba1192@gmail.com").version(1L).build();
+
+        //when - action or the behavior that we are goint to test
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.updated(renamed));
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.updated(stale));
+
+        //then - verify the output
+        assertThat(employeeService.getEmployeeById(1L)).map(Employee::getLastName).contains("Ortega");
+    }
+
+    // Junit test for an update arriving after the delete
+    @DisplayName("Junit test for a late update not bringing a deleted employee back")
+    @Test
+    public void givenDeletedEmployee_whenLateUpdate_thenStaysDeleted() {
+
+        //given - precondition or setup
+        givenDataset(List.of(employee));
+        employeeService.load();
+        Employee renamed = Employee.builder().id(1L).firstName("Joan").lastName("Ortega").email("setoba1192@gmail.com").version(1L).build();
+
+        //when - action or the behavior that we are goint to test
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.updated(renamed));
+
+        //then - verify the output
+        assertThat(employeeService.getEmployeeById(1L)).isEmpty();
+        assertThat(employeeService.size()).isZero();
+    }
+
+    // Junit test for changes made while the store is loading
+    @DisplayName("Junit test for the dataset not overwriting changes made while the store is loading")
+    @Test
+    public void givenChangesWhileLoading_whenLoad_thenChangesKept() {
+
+        //given - precondition or setup
+        Employee sebastian = Employee.builder().id(2L).firstName("Sebastian").lastName("Roa").email("sebastian@hotmail.com").build();
+        Employee renamed = Employee.builder().id(1L).firstName("Joan").lastName("Ortega").email("setoba1192@gmail.com").version(1L).build();
+        willAnswer(invocation -> {
+            employeeService.onEmployeeChanged(EmployeeChangedEvent.updated(renamed));
+            employeeService.onEmployeeChanged(EmployeeChangedEvent.deleted(2L));
+            Consumer<List<Employee>> consumer = invocation.getArgument(0);
+            consumer.accept(List.of(employee, sebastian));
+            return null;
+        }).given(employeeDataset).forEachPage(any());
+
+        //when - action or the behavior that we are goint to test
+        employeeService.load();
+
+        //then - verify the output
+        assertThat(employeeService.getEmployeeById(1L)).map(Employee::getLastName).contains("Ortega");
+        assertThat(employeeService.getEmployeeById(2L)).isEmpty();
+    }
+
+    // Junit test for the version of the listing
+    @DisplayName("Junit test for getEmployeesVersion taken from the loaded store")
+    @Test
+    public void givenLoadedStore_whenEmployeeChanged_thenVersionFromStore() {
+
+        //given - precondition or setup
+        employee.setUpdatedAt(Instant.parse("2026-10-17T09:30:00.654321Z"));
+        givenDataset(List.of(employee));
+        employeeService.load();
+        EmployeesVersion loaded = employeeService.getEmployeesVersion();
+        Employee created = Employee.builder().id(5L).firstName("Ramesh").lastName("Fadatare").email("ramesh@gmail.com")
+                .updatedAt(Instant.parse("2026-10-17T10:00:00.000001Z")).build();
+
+        //when - action or the behavior that we are goint to test
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.created(created));
+        EmployeesVersion afterCreate = employeeService.getEmployeesVersion();
+        employeeService.onEmployeeChanged(EmployeeChangedEvent.deleted(5L));
+        EmployeesVersion afterDelete = employeeService.getEmployeesVersion();
+
+        //then - verify the output
+        assertThat(loaded.getCount()).isEqualTo(1L);
+        assertThat(loaded.getLastUpdatedAt()).isEqualTo(Instant.parse("2026-10-17T09:30:00.654321Z"));
+        assertThat(afterCreate.getCount()).isEqualTo(2L);
+        assertThat(afterCreate.getLastUpdatedAt()).isEqualTo(Instant.parse("2026-10-17T10:00:00.000001Z"));
+        assertThat(afterDelete.getCount()).isEqualTo(1L);
+        verify(delegate, never()).getEmployeesVersion();
+    }
+
+    private void givenDataset(List<Employee> employees) {
+        willAnswer(invocation -> {
+            Consumer<List<Employee>> consumer = invocation.getArgument(0);
+            consumer.accept(employees);
+            return null;
+        }).given(employeeDataset).forEachPage(any());
+    }
+}
@@ -0,0 +1,109 @@
+package net.javaguides.springboot.service;
+
+import net.javaguides.springboot.service.impl.SingleFlight;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTest {
+
+    // Junit test for concurrent calls on the same key
+    @DisplayName("Junit test for single flight collapsing concurrent calls")
+    @Test
+    @Timeout(10)
+    public void givenConcurrentCallsForSameKey_whenExecute_thenLoadOnce() throws Exception {
+
+        //given - precondition or setup
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        //when - action or the behavior that we are goint to test
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                loadStarted.countDown();
+                await(releaseLoad);
+                return "Joan";
+            })));
+            loadStarted.await(5, TimeUnit.SECONDS);
+
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (singleFlight.getCollapsedCount() < callers - 1)
+                Thread.onSpinWait();
+            releaseLoad.countDown();
+
+            //then - verify the output
+            for (Future<String> result : results)
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Joan");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.getCollapsedCount()).isEqualTo(callers - 1);
+    }
+
+    // Junit test for sequential calls, nothing is kept after a load completes
+    @DisplayName("Junit test for single flight sequential calls")
+    @Test
+    public void givenSequentialCalls_whenExecute_thenLoadEveryTime() {
+
+        //given - precondition or setup
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        //when - action or the behavior that we are goint to test
+        singleFlight.execute(1L, () -> "Joan" + loads.incrementAndGet());
+        String second = singleFlight.execute(1L, () -> "Joan" + loads.incrementAndGet());
+
+        //then - verify the output
+        assertThat(second).isEqualTo("Joan2");
+        assertThat(singleFlight.getCollapsedCount()).isZero();
+    }
+
+    // Junit test for a failing load
+    @DisplayName("Junit test for single flight failing load")
+    @Test
+    public void givenFailingLoad_whenExecute_thenThrowAndAllowRetry() {
+
+        //given - precondition or setup
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+        // when - then
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            singleFlight.execute(1L, () -> {
+                throw new IllegalStateException("database down");
+            });
+        });
+        assertThat(singleFlight.execute(1L, () -> "Joan")).isEqualTo("Joan");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package net.javaguides.springboot.support;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import net.javaguides.springboot.model.Employee;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Loads large numbers of employees straight through JDBC, bypassing Hibernate, into H2 or MySQL.
+ * <p>
+ * Rows are sent as multi-row INSERTs of {@link #ROWS_PER_INSERT} rows. On MySQL, when both the server
+ * ({@code local_infile}) and the connection URL ({@code allowLoadLocalInfile=true}) allow it, they are streamed with
+ * {@code LOAD DATA LOCAL INFILE} instead, which is several times faster. Ids are assigned by the loader above both
+ * the existing rows and the employees_seq sequence, and the sequence is moved past the loaded ids afterwards, so
+ * Hibernate keeps generating ids that do not collide. Every loaded row gets version 0 and the load time as createdAt
+ * and updatedAt.
+ * <p>
+ * The loader uses the connection of the current Spring transaction when there is one, so rows loaded inside a
+ * {@code @DataJpaTest} are rolled back with the test.
+ */
+public class EmployeeBulkLoader {
+
+    public static final int ROWS_PER_INSERT = 1000;
+
+    static final int ROWS_PER_LOAD_DATA = 100_000;
+
+    // allocationSize of the employees_seq generator
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+    /**
+     * Ids given to the loaded employees, firstId to firstId + count - 1.
+     */
+    public record Loaded(long firstId, long count) {
+
+        public long lastId() {
+            return firstId + count - 1;
+        }
+    }
+
+    private enum Database {H2, MYSQL}
+
+    private final DataSource dataSource;
+
+    public EmployeeBulkLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public Loaded load(Stream<Employee> employees) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            Database database = database(connection);
+            long firstId = Math.max(maxId(connection), currentSequenceValue(connection, database)) + 1;
+
+            Iterator<Employee> iterator = employees.iterator();
+            // written like Hibernate writes an Instant, in the JVM time zone
+            Timestamp loadedAt = Timestamp.from(Employee.now());
+            long count = database == Database.MYSQL && localInfileAllowed(connection)
+                    ? loadData(connection, iterator, firstId, loadedAt)
+                    : insert(connection, iterator, firstId, loadedAt);
+
+            restartSequence(connection, database, firstId + count + SEQUENCE_ALLOCATION_SIZE);
+            return new Loaded(firstId, count);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Bulk load of employees failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static long insert(Connection connection, Iterator<Employee> employees, long firstId, Timestamp loadedAt)
+            throws SQLException {
+        List<Employee> chunk = new ArrayList<>(ROWS_PER_INSERT);
+        long id = firstId;
+        try (PreparedStatement fullChunk = connection.prepareStatement(insertSql(ROWS_PER_INSERT))) {
+            while (employees.hasNext()) {
+                chunk.add(employees.next());
+                if (chunk.size() == ROWS_PER_INSERT) {
+                    id = bind(fullChunk, chunk, id, loadedAt);
+                    fullChunk.executeUpdate();
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            try (PreparedStatement lastChunk = connection.prepareStatement(insertSql(chunk.size()))) {
+                id = bind(lastChunk, chunk, id, loadedAt);
+                lastChunk.executeUpdate();
+            }
+        }
+        return id - firstId;
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(
+                "insert into employees (id, first_name, last_name, email, version, created_at, updated_at) values ");
+        for (int i = 0; i < rows; i++)
+            sql.append(i == 0 ? "(?, ?, ?, ?, 0, ?, ?)" : ", (?, ?, ?, ?, 0, ?, ?)");
+        return sql.toString();
+    }
+
+    private static long bind(PreparedStatement statement, List<Employee> chunk, long firstId, Timestamp loadedAt)
+            throws SQLException {
+        int parameter = 1;
+        long id = firstId;
+        for (Employee employee : chunk) {
+            statement.setLong(parameter++, id++);
+            statement.setString(parameter++, employee.getFirstName());
+            statement.setString(parameter++, employee.getLastName());
+            statement.setString(parameter++, employee.getEmail());
+            statement.setTimestamp(parameter++, loadedAt);
+            statement.setTimestamp(parameter++, loadedAt);
+        }
+        return id;
+    }
+
+    private static long loadData(Connection connection, Iterator<Employee> employees, long firstId, Timestamp loadedAt)
+            throws SQLException {
+        long id = firstId;
+        try (Statement statement = connection.createStatement()) {
+            JdbcStatement mysqlStatement = statement.unwrap(JdbcStatement.class);
+            while (employees.hasNext()) {
+                ByteArrayOutputStream rows = new ByteArrayOutputStream(ROWS_PER_LOAD_DATA * 64);
+                for (int i = 0; i < ROWS_PER_LOAD_DATA && employees.hasNext(); i++) {
+                    Employee employee = employees.next();
+                    String row = (id++) + "\t" + escape(employee.getFirstName()) + "\t" + escape(employee.getLastName())
+                            + "\t" + escape(employee.getEmail()) + "\n";
+                    rows.writeBytes(row.getBytes(StandardCharsets.UTF_8));
+                }
+                // the driver reads this stream instead of the named file
+                mysqlStatement.setLocalInfileInputStream(new ByteArrayInputStream(rows.toByteArray()));
+                statement.execute("load data local infile 'employees.tsv' into table employees character set utf8mb4 "
+                        + "fields terminated by '\\t' lines terminated by '\\n' (id, first_name, last_name, email) "
+                        + "set version = 0, created_at = '" + loadedAt + "', updated_at = '" + loadedAt + "'");
+            }
+        }
+        return id - firstId;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static Database database(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (product.contains("h2"))
+            return Database.H2;
+        if (product.contains("mysql"))
+            return Database.MYSQL;
+        throw new IllegalStateException("Bulk loading is not supported on " + product);
+    }
+
+    private static boolean localInfileAllowed(Connection connection) throws SQLException {
+        if (!connection.getMetaData().getURL().contains("allowLoadLocalInfile=true"))
+            return false;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select @@global.local_infile")) {
+            return resultSet.next() && resultSet.getInt(1) == 1;
+        }
+    }
+
+    private static long maxId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select coalesce(max(id), 0) from employees")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Hibernate only hands out ids below the current value of the sequence.
+     */
+    private static long currentSequenceValue(Connection connection, Database database) throws SQLException {
+        String sql = database == Database.H2
+                ? "select next value for employees_seq"
+                : "select next_val from employees_seq";
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private static void restartSequence(Connection connection, Database database, long nextValue) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (database == Database.H2)
+                statement.execute("alter sequence employees_seq restart with " + nextValue);
+            else
+                statement.executeUpdate("update employees_seq set next_val = " + nextValue);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package net.javaguides.springboot.support;
+
+import net.javaguides.springboot.model.Employee;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic synthetic employees for tests and benchmarks.
+ * <p>
+ * The employee at a given index only depends on the seed and the index, so any range can be regenerated without
+ * generating what comes before it, for example to look up a name that was loaded earlier. Names are skewed: a few
+ * first and last names are very common and most are rare, like in real data, so lookups by name return a varying
+ * number of rows. Emails are unique because they contain the index.
+ */
+public class EmployeeDataGenerator {
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Maria", "John", "Ana", "Robert", "Laura", "Michael", "Sofia", "David", "Camila",
+            "William", "Valentina", "Richard", "Isabella", "Joseph", "Lucia", "Thomas", "Daniela", "Carlos", "Paula",
+            "Juan", "Andrea", "Luis", "Mariana", "Jorge", "Gabriela", "Pedro", "Natalia", "Diego", "Carolina",
+            "Joan", "Sebastian", "Ramesh", "Priya", "Wei", "Mei", "Hiroshi", "Yuki", "Ahmed", "Fatima",
+            "Olga", "Ivan", "Lars", "Ingrid", "Pierre", "Claire", "Hans", "Greta", "Marco", "Giulia",
+            "Kwame", "Amara", "Tariq", "Leila", "Mateo", "Elena", "Noah", "Emma", "Liam", "Olivia",
+            "Arjun", "Ananya", "Chen", "Lin", "Kenji", "Aiko", "Omar", "Zara", "Dmitri", "Anya",
+            "Felix", "Nora", "Oscar", "Alma", "Hugo", "Ines", "Emil", "Freya", "Rafael", "Beatriz"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Garcia", "Johnson", "Rodriguez", "Williams", "Martinez", "Brown", "Lopez", "Jones", "Gonzalez",
+            "Miller", "Hernandez", "Davis", "Perez", "Wilson", "Sanchez", "Anderson", "Ramirez", "Taylor", "Torres",
+            "Roa", "Fadatare", "Kumar", "Sharma", "Wang", "Li", "Zhang", "Liu", "Tanaka", "Suzuki",
+            "Sato", "Kim", "Lee", "Park", "Nguyen", "Tran", "Muller", "Schmidt", "Schneider", "Fischer",
+            "Rossi", "Russo", "Ferrari", "Dubois", "Moreau", "Laurent", "Ivanov", "Petrov", "Novak", "Kowalski",
+            "Nielsen", "Hansen", "Johansson", "Andersson", "Okafor", "Mensah", "Haddad", "Khan", "Ali", "Hassan",
+            "Silva", "Santos", "Oliveira", "Souza", "Costa", "Pereira", "Almeida", "Ferreira", "Ribeiro", "Carvalho",
+            "Murphy", "Kelly", "OBrien", "Walsh", "Byrne", "Ryan", "Cohen", "Levi", "Friedman", "Katz"
+    };
+
+    private static final String[] DOMAINS = {
+            "gmail.com", "hotmail.com", "yahoo.com", "outlook.com", "example.com", "example.org", "javaguides.net"
+    };
+
+    // mixes the index into the seed so neighbouring indexes get unrelated random streams
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+
+    public EmployeeDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the employee at that index, without id
+     */
+    public Employee employee(long index) {
+        SplittableRandom random = new SplittableRandom(seed + index * GOLDEN_GAMMA);
+        String firstName = FIRST_NAMES[skewed(random, FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[skewed(random, LAST_NAMES.length)];
+        String domain = DOMAINS[skewed(random, DOMAINS.length)];
+        return Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(firstName.toLowerCase(Locale.ROOT) + "." + lastName.toLowerCase(Locale.ROOT) + "." + index + "@" + domain)
+                .build();
+    }
+
+    /**
+     * Employees at indexes 0 to count - 1, generated lazily so millions can be streamed into a loader.
+     */
+    public Stream<Employee> employees(long count) {
+        return LongStream.range(0, count).mapToObj(this::employee);
+    }
+
+    /**
+     * Cubing a uniform value piles the picks up at the start of the array: the first tenth of the names gets
+     * close to half of the picks.
+     */
+    private static int skewed(SplittableRandom random, int size) {
+        double uniform = random.nextDouble();
+        return (int) (uniform * uniform * uniform * size);
+    }
+}
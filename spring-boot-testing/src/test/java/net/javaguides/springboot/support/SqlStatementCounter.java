@@ -0,0 +1,93 @@
+package net.javaguides.springboot.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts the SQL statements Hibernate prepares, by type, so tests can assert statement budgets such as
+ * "create = 1 INSERT".
+ * <p>
+ * Enable it with {@code @DataJpaTest(properties = SqlStatementCounter.ENABLED)} or the same on
+ * {@code @SpringBootTest}, call {@link #reset()} right before the operation under test and compare {@link #counts()}
+ * afterwards. A JDBC batch is prepared once and counts as one statement, which matches the number of round trips.
+ * Sequence calls are counted apart and left out of {@link #counts()}, since with pooled ids they only happen once
+ * every allocationSize inserts. The statements themselves are kept too, see {@link #statements()}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    public static final String ENABLED =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=net.javaguides.springboot.support.SqlStatementCounter";
+
+    public enum Type {SELECT, INSERT, UPDATE, DELETE, SEQUENCE, OTHER}
+
+    // Hibernate creates the inspector itself, so the counts are shared by every instance
+    private static final AtomicIntegerArray COUNTS = new AtomicIntegerArray(Type.values().length);
+
+    private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.incrementAndGet(type(sql).ordinal());
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        for (int i = 0; i < COUNTS.length(); i++)
+            COUNTS.set(i, 0);
+        STATEMENTS.clear();
+    }
+
+    /**
+     * Every statement prepared since the last {@link #reset()}, in order, sequence calls included.
+     */
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return List.copyOf(STATEMENTS);
+        }
+    }
+
+    public static int count(Type type) {
+        return COUNTS.get(type.ordinal());
+    }
+
+    /**
+     * Non zero counts of every type but {@link Type#SEQUENCE}, so a budget reads as
+     * {@code assertThat(counts()).isEqualTo(Map.of(Type.INSERT, 1))} and an unexpected SELECT shows in the failure.
+     */
+    public static Map<Type, Integer> counts() {
+        Map<Type, Integer> counts = new EnumMap<>(Type.class);
+        for (Type type : Type.values()) {
+            if (type != Type.SEQUENCE && count(type) > 0)
+                counts.put(type, count(type));
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public static Type type(String sql) {
+        String statement = sql.strip();
+        // skip comments added by hibernate.use_sql_comments
+        while (statement.startsWith("/*") && statement.contains("*/"))
+            statement = statement.substring(statement.indexOf("*/") + 2).strip();
+        statement = statement.toLowerCase(Locale.ROOT);
+
+        if (statement.contains("next value for") || statement.contains("nextval("))
+            return Type.SEQUENCE;
+        if (statement.startsWith("select") || statement.startsWith("with"))
+            return Type.SELECT;
+        if (statement.startsWith("insert"))
+            return Type.INSERT;
+        if (statement.startsWith("update"))
+            return Type.UPDATE;
+        if (statement.startsWith("delete"))
+            return Type.DELETE;
+        return Type.OTHER;
+    }
+}